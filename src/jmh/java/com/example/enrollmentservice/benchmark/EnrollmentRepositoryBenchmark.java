@@ -0,0 +1,93 @@
+package com.example.enrollmentservice.benchmark;
+
+import com.example.enrollmentservice.EnrollmentserviceApplication;
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Repository queries behind the enrollment endpoints, run through Spring Data against the embedded H2 of the
+ * {@code test} profile after Flyway has created the real schema and indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrollmentRepositoryBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int COURSES = 500;
+    private static final int ENROLLMENTS_PER_USER = 20;
+
+    private ConfigurableApplicationContext context;
+    private EnrollmentRepository repository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EnrollmentserviceApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "enrollment.membership-index.enabled=false", "enrollment.counters.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        repository = context.getBean(EnrollmentRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean findByUserAndCourse() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return repository.findByUserIdAndCourseId((long) random.nextInt(USERS), (long) random.nextInt(COURSES)).isPresent();
+    }
+
+    @Benchmark
+    public List<Enrollment> firstKeysetSlice() {
+        return repository.findByUserIdOrderByEnrolledAtAscIdAsc(randomUser(), PageRequest.ofSize(21));
+    }
+
+    @Benchmark
+    public Page<Enrollment> offsetPageWithCount() {
+        return repository.findByUserId(randomUser(), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public long countByCourse() {
+        return repository.countByCourseId((long) ThreadLocalRandom.current().nextInt(COURSES));
+    }
+
+    private static long randomUser() {
+        return ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        LocalDateTime start = LocalDateTime.of(2024, 9, 1, 8, 0);
+        List<Object[]> rows = new ArrayList<>(USERS * ENROLLMENTS_PER_USER);
+        long id = 1;
+        for (int user = 0; user < USERS; user++) {
+            for (int i = 0; i < ENROLLMENTS_PER_USER; i++) {
+                long course = (user * 31L + i * 17L) % COURSES;
+                rows.add(new Object[]{id, (long) user, course, Timestamp.valueOf(start.plusMinutes(id)), "ENROLLED"});
+                id++;
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO enrollments (id, user_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.enrollmentservice.benchmark;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.config.JwtAuthenticationCache;
+import com.example.enrollmentservice.config.JwtAuthenticator;
+import com.example.enrollmentservice.service.EnrollmentMetrics;
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import com.example.enrollmentservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Per-request cost of JWT authentication: the old double parse with a fresh parser each time,
+ * a single parse with the shared parser, and the full filter once the token is cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    static final String SECRET = "js+rYouZsFFcNODquH8ShC6vHbytsJUWMLt+WgXjQMc=";
+
+    private Key key;
+    private String token;
+    private JwtUtil jwtUtil;
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = Jwts.builder()
+                .setSubject("student@example.com")
+                .claim("roles", List.of("STUDENT"))
+                .claim("userId", 42)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+
+        jwtUtil = new JwtUtil(SECRET);
+        filter = new JwtAuthFilter(new JwtAuthenticator(jwtUtil,
+                new TokenBlacklistService(jwtUtil, true, 100_000, 0.01, ""),
+                new JwtAuthenticationCache(new SimpleMeterRegistry(), 10_000),
+                new EnrollmentMetrics(new SimpleMeterRegistry())));
+
+        request = new MockHttpServletRequest("GET", "/api/enrollments/check");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /** Previous filter: isTokenValid() then extractAllClaims(), each with a freshly built parser */
+    @Benchmark
+    public Claims legacyDoubleParse() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims singleParseSharedParser() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Object filterWithCachedToken() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.getRequest();
+    }
+}
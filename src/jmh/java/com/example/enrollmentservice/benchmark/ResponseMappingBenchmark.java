@@ -0,0 +1,90 @@
+package com.example.enrollmentservice.benchmark;
+
+import com.example.enrollmentservice.dto.ApiResponse;
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.objenesis.ObjenesisStd;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Turning a page of entities into the JSON body of GET /user/{userId}: the entity → DTO mapping done by
+ * {@code EnrollmentService} and serialization of {@code ApiResponse<Page<EnrollmentResponse>>} with the
+ * ObjectMapper configuration Spring Boot uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private EnrollmentService service;
+    private MethodHandle mapToResponse;
+    private ObjectMapper objectMapper;
+    private Page<Enrollment> entities;
+    private ApiResponse<Page<EnrollmentResponse>> body;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        // ✅ mapToResponse touches no collaborator, so the service is instantiated without any
+        service = new ObjenesisStd().newInstance(EnrollmentService.class);
+        mapToResponse = MethodHandles.privateLookupIn(EnrollmentService.class, MethodHandles.lookup())
+                .findVirtual(EnrollmentService.class, "mapToResponse",
+                        MethodType.methodType(EnrollmentResponse.class, Enrollment.class));
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Enrollment> rows = new ArrayList<>(pageSize);
+        LocalDateTime start = LocalDateTime.of(2024, 9, 1, 8, 0);
+        for (int i = 0; i < pageSize; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId(1_000L + i);
+            enrollment.setUserId(42L);
+            enrollment.setCourseId(100L + i);
+            enrollment.setEnrolledAt(start.plusMinutes(i));
+            enrollment.setStatus(EnrollmentStatus.ENROLLED);
+            rows.add(enrollment);
+        }
+        entities = new PageImpl<>(rows, PageRequest.of(0, pageSize), 500);
+        body = ApiResponse.success(map());
+    }
+
+    @Benchmark
+    public Page<EnrollmentResponse> map() {
+        return entities.map(enrollment -> {
+            try {
+                return (EnrollmentResponse) mapToResponse.invokeExact(service, enrollment);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(map()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.enrollmentservice.benchmark;
+
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import com.example.enrollmentservice.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Revocation lookups on every authenticated request: the common "not revoked" answer and a revoked hit,
+ * with and without the Bloom pre-filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBlacklistBenchmark {
+
+    @Param({"true", "false"})
+    public boolean bloom;
+
+    @Param({"1000", "100000"})
+    public int revokedTokens;
+
+    private TokenBlacklistService blacklist;
+    private String liveToken;
+    private String revokedToken;
+
+    @Setup
+    public void setUp() {
+        blacklist = new TokenBlacklistService(new JwtUtil(JwtAuthFilterBenchmark.SECRET), bloom, 100_000, 0.01, "");
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < revokedTokens; i++) {
+            blacklist.revokeToken(fakeToken(i), expiresAt);
+        }
+        revokedToken = fakeToken(revokedTokens / 2);
+        liveToken = fakeToken(-1);
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return blacklist.isTokenRevoked(liveToken);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return blacklist.isTokenRevoked(revokedToken);
+    }
+
+    /** Realistically sized compact JWT string; the blacklist never parses it */
+    private static String fakeToken(int i) {
+        return "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJzdHVkZW50" + i + "QGV4YW1wbGUuY29tIiwicm9sZXMiOlsiU1RVREVOVCJdfQ."
+                + Integer.toHexString(i * 0x9E3779B9) + "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.enrollmentservice.loadtest;
+
+import com.example.enrollmentservice.EnrollmentserviceApplication;
+import com.example.enrollmentservice.service.EnrollmentCounters;
+import com.example.enrollmentservice.service.MembershipIndex;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ Self-contained load test: boots the service on the embedded H2 of the {@code test} profile, points the user id
+ * lookup at {@link StubUserService} and replays a weighted mix of enroll / check / list / unenroll requests from
+ * closed-loop workers over HTTP. Prints throughput and p50/p99/p999 per endpoint and writes them as CSV.
+ * <p>
+ * Options ({@code --name=value}): duration, warmup, concurrency, users, courses, user-service-latency,
+ * mix (e.g. {@code enroll:20,check:50,list:20,unenroll:10}), report, seed (enrollments inserted per user before
+ * the run) and stack ({@code servlet} or {@code reactive}; the reactive profile only serves check and list).
+ * Options starting with {@code enrollment.},
+ * {@code server.} or {@code spring.} are passed on to the service, e.g. {@code --enrollment.virtual-threads.enabled=true}.
+ */
+@Slf4j
+public class LoadTestDriver {
+
+    enum Endpoint { ENROLL, CHECK, LIST, UNENROLL }
+
+    /** Latency in microseconds plus outcome counts of one endpoint */
+    static final class Stats {
+        final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        void reset() {
+            latencyMicros.reset();
+            ok.set(0);
+            rejected.set(0);
+            errors.set(0);
+        }
+    }
+
+    private static final List<String> SERVICE_OPTION_PREFIXES = List.of("enrollment.", "server.", "spring.");
+
+    private final Map<String, String> options;
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private String baseUrl;
+    private String[] tokens;
+
+    LoadTestDriver(Map<String, String> options) {
+        this.options = options;
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new LoadTestDriver(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        Duration duration = Duration.parse(option("duration", "PT60S"));
+        Duration warmup = Duration.parse(option("warmup", "PT10S"));
+        int concurrency = Integer.parseInt(option("concurrency", "32"));
+        int users = Integer.parseInt(option("users", "5000"));
+        int courses = Integer.parseInt(option("courses", "200"));
+        EnumMap<Endpoint, Integer> mix = parseMix(option("mix", "enroll:20,check:50,list:20,unenroll:10"));
+
+        try (StubUserService userService = new StubUserService(Duration.parse(option("user-service-latency", "PT0.005S")))) {
+            List<String> serviceArgs = new ArrayList<>();
+            // ✅ The user service client resolves service ids; point the id at the stub instead of Eureka
+            serviceArgs.add("--spring.cloud.discovery.client.simple.instances.userservice[0].uri=http://localhost:" + userService.port());
+            serviceArgs.add("--enrollment.user-id.url=http://userservice" + StubUserService.PATH);
+            options.forEach((name, value) -> {
+                if (SERVICE_OPTION_PREFIXES.stream().anyMatch(name::startsWith)) {
+                    serviceArgs.add("--" + name + "=" + value);
+                }
+            });
+            // ✅ test comes after reactive so the in-memory R2DBC url wins over the PostgreSQL one
+            String[] profiles = "reactive".equals(option("stack", "servlet"))
+                    ? new String[]{"reactive", "test", "loadtest"}
+                    : new String[]{"test", "loadtest"};
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(EnrollmentserviceApplication.class)
+                    .profiles(profiles)
+                    .run(serviceArgs.toArray(String[]::new));
+            try {
+                seed(context, users, courses, Integer.parseInt(option("seed", "0")));
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/enrollments";
+                tokens = mintTokens(context.getEnvironment().getProperty("jwt.secret"), users, userService);
+
+                log.info("🚀 {} workers, {} users, {} courses, mix {}, warm-up {}, measuring {}, max heap {} MiB",
+                        concurrency, users, courses, mix, warmup, duration, Runtime.getRuntime().maxMemory() >> 20);
+                drive(concurrency, users, courses, mix, warmup, duration);
+                report(duration);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private void drive(int concurrency, int users, int courses, EnumMap<Endpoint, Integer> mix,
+                       Duration warmup, Duration duration) throws InterruptedException {
+        Endpoint[] weighted = mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Endpoint[]::new);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        ExecutorService workers = Threads.newPerTaskExecutor();
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < stopAt) {
+                    Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+                    call(endpoint, random.nextInt(users), random.nextInt(courses) + 1L);
+                }
+            });
+        }
+        Thread.sleep(warmup.toMillis());
+        stats.values().forEach(Stats::reset);
+        log.info("📏 Warm-up done, measuring");
+        workers.shutdown();
+        workers.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+    }
+
+    private void call(Endpoint endpoint, int user, long courseId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", tokens[user]);
+        String courseBody = "{\"courseId\":" + courseId + "}";
+        switch (endpoint) {
+            case ENROLL -> request.uri(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(courseBody));
+            case CHECK -> request.uri(URI.create(baseUrl + "/check?userId=" + userId(user) + "&courseId=" + courseId)).GET();
+            case LIST -> request.uri(URI.create(baseUrl + "/user/" + userId(user) + "/cursor?size=20")).GET();
+            case UNENROLL -> request.uri(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .method("DELETE", HttpRequest.BodyPublishers.ofString(courseBody));
+        }
+
+        Stats endpointStats = stats.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            int status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            endpointStats.latencyMicros.recordValue(Math.min((System.nanoTime() - start) / 1_000,
+                    endpointStats.latencyMicros.getHighestTrackableValue()));
+            if (status < 300) {
+                endpointStats.ok.incrementAndGet();
+            } else if (status == 404 || status == 409) {
+                // ✅ Expected with a random mix: already enrolled, course full, nothing to unenroll
+                endpointStats.rejected.incrementAndGet();
+            } else {
+                endpointStats.errors.incrementAndGet();
+            }
+        } catch (IOException e) {
+            endpointStats.errors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(Duration duration) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        String header = "endpoint,requests,ok,rejected,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms";
+        List<String> rows = new ArrayList<>();
+        System.out.printf("%n%-9s %9s %9s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "ok", "4xx", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram h = s.latencyMicros;
+            long requests = h.getTotalCount();
+            double[] values = {requests / seconds, ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue())};
+            System.out.printf("%-9s %9d %9d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), requests, s.ok.get(), s.rejected.get(), s.errors.get(),
+                    values[0], values[1], values[2], values[3], values[4]);
+            rows.add(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f",
+                    entry.getKey().name().toLowerCase(), requests, s.ok.get(), s.rejected.get(), s.errors.get(),
+                    values[0], values[1], values[2], values[3], values[4]));
+        }
+
+        Path report = Path.of(option("report", "target/loadtest-report.csv"));
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+            out.println(header);
+            rows.forEach(out::println);
+        }
+        log.info("📄 Report written to {}", report.toAbsolutePath());
+    }
+
+    /**
+     * ✅ Insert {@code perUser} enrollments for every user straight through JDBC, then rebuild the in-memory views
+     */
+    private static void seed(ConfigurableApplicationContext context, int users, int courses, int perUser) {
+        if (perUser <= 0) {
+            return;
+        }
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        // ✅ Far above the pooled sequence so enrolls made during the run never collide
+        long id = 1_000_000_000L;
+        for (int user = 0; user < users; user++) {
+            List<Object[]> rows = new ArrayList<>(perUser);
+            for (int j = 0; j < Math.min(perUser, courses); j++) {
+                rows.add(new Object[]{id++, userId(user), (long) ((user + j) % courses) + 1,
+                        Timestamp.valueOf(start.plusMinutes(j)), "ENROLLED"});
+            }
+            jdbc.batchUpdate("INSERT INTO enrollments (id, user_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        context.getBean(MembershipIndex.class).warmUp();
+        context.getBean(EnrollmentCounters.class).reconcile();
+        log.info("🌱 Seeded {} enrollments", id - 1_000_000_000L);
+    }
+
+    /**
+     * ✅ One token per simulated user, registered with the stub so the remote lookup can answer it
+     */
+    private static String[] mintTokens(String secret, int users, StubUserService userService) {
+        Key key = Keys.hmacShaKeyFor(secret.getBytes());
+        Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12));
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = "Bearer " + Jwts.builder()
+                    .setSubject("student" + i + "@load.test")
+                    .claim("roles", List.of("STUDENT"))
+                    .claim("userId", userId(i))
+                    .setExpiration(expiresAt)
+                    .signWith(key)
+                    .compact();
+            userService.register(tokens[i], userId(i));
+        }
+        return tokens;
+    }
+
+    private static long userId(int user) {
+        return 1_000_000L + user;
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static EnumMap<Endpoint, Integer> parseMix(String mix) {
+        EnumMap<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            weights.put(Endpoint.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+}
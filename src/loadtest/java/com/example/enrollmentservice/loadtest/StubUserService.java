@@ -0,0 +1,65 @@
+package com.example.enrollmentservice.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ✅ Stand-in for the user service's {@code GET /userservice/user/email}: answers the userId registered for the
+ * caller's token after a fixed delay, so the remote user id lookup costs what it would in production.
+ */
+@Slf4j
+class StubUserService implements AutoCloseable {
+
+    static final String PATH = "/userservice/user/email";
+
+    private final Map<String, Long> userIdByToken = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor = Threads.newPerTaskExecutor();
+
+    StubUserService(Duration latency) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 512);
+        server.createContext(PATH, exchange -> {
+            try (exchange) {
+                LockSupport.parkNanos(latency.toNanos());
+                Long userId = userIdByToken.get(exchange.getRequestHeaders().getFirst("Authorization"));
+                if (userId == null) {
+                    exchange.sendResponseHeaders(401, -1);
+                    return;
+                }
+                byte[] body = userId.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+        log.info("🧪 Stub user service on port {} with {} ms latency", port(), latency.toMillis());
+    }
+
+    void register(String authorizationHeader, long userId) {
+        userIdByToken.put(authorizationHeader, userId);
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
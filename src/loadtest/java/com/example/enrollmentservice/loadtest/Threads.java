@@ -0,0 +1,22 @@
+package com.example.enrollmentservice.loadtest;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ✅ Harness threads are virtual on Java 21+, so neither the driver's workers nor the stub's handlers take
+ * platform stacks out of the heap shared with the service under test
+ */
+final class Threads {
+
+    private Threads() {
+    }
+
+    static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
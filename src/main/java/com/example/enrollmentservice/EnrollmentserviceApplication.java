@@ -3,19 +3,21 @@ package com.example.enrollmentservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication
+// ✅ The R2DBC repository of reactive builds (src/reactive) maps a JPA entity too; keep JPA from claiming it
+@EnableJpaRepositories(excludeFilters = @ComponentScan.Filter(
+		type = FilterType.REGEX, pattern = "com\\.example\\.enrollmentservice\\.repository\\.Reactive.*"))
 public class EnrollmentserviceApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(EnrollmentserviceApplication.class, args);
 	}
-	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
-	}
 
 }
@@ -0,0 +1,149 @@
+package com.example.enrollmentservice.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ✅ Read-only {@link Claims}: one verified token's claims are shared by every request presenting it, so no request
+ * may change them for the others. Reads delegate to a private copy; nested lists and maps are unmodifiable too.
+ */
+final class ImmutableClaims extends AbstractMap<String, Object> implements Claims {
+
+    private final Claims claims;
+    private final Set<Entry<String, Object>> entries;
+
+    private ImmutableClaims(Claims claims) {
+        this.claims = claims;
+        this.entries = Collections.unmodifiableMap(claims).entrySet();
+    }
+
+    static Claims copyOf(Claims claims) {
+        if (claims instanceof ImmutableClaims) {
+            return claims;
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        claims.forEach((name, value) -> values.put(name, frozen(value)));
+        return new ImmutableClaims(Jwts.claims(values));
+    }
+
+    private static Object frozen(Object value) {
+        if (value instanceof List<?> list) {
+            return Collections.unmodifiableList(list.stream().map(ImmutableClaims::frozen).toList());
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, nested) -> copy.put(key, frozen(nested)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Date date) {
+            return date.getTime() / 1000;
+        }
+        return value;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return entries;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return claims.get(key);
+    }
+
+    @Override
+    public <T> T get(String claimName, Class<T> requiredType) {
+        return claims.get(claimName, requiredType);
+    }
+
+    @Override
+    public String getIssuer() {
+        return claims.getIssuer();
+    }
+
+    @Override
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    @Override
+    public String getAudience() {
+        return claims.getAudience();
+    }
+
+    @Override
+    public Date getExpiration() {
+        return copy(claims.getExpiration());
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return copy(claims.getNotBefore());
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return copy(claims.getIssuedAt());
+    }
+
+    @Override
+    public String getId() {
+        return claims.getId();
+    }
+
+    @Override
+    public Claims setIssuer(String iss) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setSubject(String sub) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setAudience(String aud) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setExpiration(Date exp) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setNotBefore(Date nbf) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setIssuedAt(Date iat) {
+        throw readOnly();
+    }
+
+    @Override
+    public Claims setId(String jti) {
+        throw readOnly();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        throw readOnly();
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Verified token claims are read-only");
+    }
+}
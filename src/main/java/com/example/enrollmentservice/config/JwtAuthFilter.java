@@ -1,30 +1,26 @@
 package com.example.enrollmentservice.config;
 
-import com.example.enrollmentservice.service.TokenBlacklistService;
-import com.example.enrollmentservice.util.JwtUtil;
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final TokenBlacklistService tokenBlacklistService;
+    /** Request attribute holding the verified token claims for downstream consumers */
+    public static final String CLAIMS_ATTRIBUTE = JwtAuthFilter.class.getName() + ".claims";
+
+    private final JwtAuthenticator authenticator;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -39,45 +35,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         final String token = authHeader.substring(7);
 
-        if (tokenBlacklistService.isTokenRevoked(token)) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token is revoked");
-            return;
-        }
-
-        if (!jwtUtil.isTokenValid(token)) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+        JwtAuthenticator.Result result = authenticator.authenticate(token);
+        if (result.failure() != null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, result.failure().message());
             return;
         }
-
-        // ✅ Extract data from token
-        Claims claims = jwtUtil.extractAllClaims(token);
-        String username = claims.getSubject();
-        ArrayList<String> role = claims.get("roles", ArrayList.class);
-        String roleName = role.get(0);
-
-        if (username == null || role == null) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token payload");
-            return;
-        }
-
-        // ✅ Convert role to authority
-        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + roleName);
-
-        User userDetails = new User(username, "", Collections.singletonList(authority));
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                userDetails,
-                null,
-                userDetails.getAuthorities()
-        );
+        JwtAuthenticationCache.Entry authenticated = result.authenticated();
 
         // ✅ Set the authenticated user in the security context
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+        SecurityContextHolder.getContext().setAuthentication(authenticated.authentication());
+        request.setAttribute(CLAIMS_ATTRIBUTE, authenticated.claims());
 
-        // ✅ Debug logs
-        System.out.println("🧠 Authenticated: " + username);
-        System.out.println("🛡 Role: ROLE_" + role);
-        System.out.println("✅ Authorities: " + authentication.getAuthorities());
+        log.debug("🧠 Authenticated: {} with authorities {}",
+                authenticated.claims().getSubject(), authenticated.authentication().getAuthorities());
 
         filterChain.doFilter(request, response);
     }
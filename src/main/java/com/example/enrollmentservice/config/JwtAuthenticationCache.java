@@ -0,0 +1,92 @@
+package com.example.enrollmentservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Verified tokens and the {@link Authentication} built from them.
+ * <p>
+ * Each entry expires at the token's own {@code exp}, so a cached token is never trusted past its lifetime. The
+ * claims are held as a read-only copy, since every request presenting the token shares them.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    public record Entry(Claims claims, Authentication authentication, long expiresAtMillis) {
+    }
+
+    private final Cache<String, Entry> cache;
+
+    public JwtAuthenticationCache(MeterRegistry meterRegistry,
+                                  @Value("${enrollment.jwt.cache.max-size:50000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String token, Entry entry, long currentTime) {
+                        return remainingNanos(entry);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+                        return remainingNanos(entry);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtAuthenticationCache");
+    }
+
+    /**
+     * ✅ Cached entry for the token, or {@code null} if it has not been verified yet (or has expired)
+     */
+    public Entry get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry != null && entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * ✅ Remember a verified token; tokens without {@code exp} are not cached
+     */
+    public Entry put(String token, Claims claims, Authentication authentication) {
+        Date expiration = claims.getExpiration();
+        Entry entry = new Entry(ImmutableClaims.copyOf(claims), authentication, expiration == null ? 0 : expiration.getTime());
+        if (expiration != null) {
+            cache.put(token, entry);
+        }
+        return entry;
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static long remainingNanos(Entry entry) {
+        long remainingMillis = entry.expiresAtMillis() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+    }
+}
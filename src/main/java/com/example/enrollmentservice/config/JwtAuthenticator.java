@@ -0,0 +1,120 @@
+package com.example.enrollmentservice.config;
+
+import com.example.enrollmentservice.service.EnrollmentMetrics;
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import com.example.enrollmentservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ✅ Bearer token verification shared by the servlet and reactive filters, so both stacks apply the same checks:
+ * revocation first (a cached token is never trusted once revoked), then the cache, then parsing and the
+ * subject / role requirements. Only how the outcome reaches the request differs between the two filters.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticator {
+
+    public enum Failure {
+        REVOKED("revoked", "Token is revoked"),
+        INVALID("invalid", "Invalid token"),
+        PAYLOAD("payload", "Invalid token payload");
+
+        private final String reason;
+        private final String message;
+
+        Failure(String reason, String message) {
+            this.reason = reason;
+            this.message = message;
+        }
+
+        public String message() {
+            return message;
+        }
+    }
+
+    /**
+     * ✅ Either the verified entry or why the token was rejected
+     */
+    public record Result(JwtAuthenticationCache.Entry authenticated, Failure failure) {
+    }
+
+    private final JwtUtil jwtUtil;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final EnrollmentMetrics metrics;
+
+    /**
+     * ✅ Verify the token, timed as the authenticate stage; rejections are counted by reason
+     */
+    public Result authenticate(String token) {
+        Timer.Sample sample = metrics.start();
+        Result result = verify(token);
+        metrics.stop(sample, EnrollmentMetrics.Stage.AUTHENTICATE);
+        if (result.failure() != null) {
+            metrics.authFailure(result.failure().reason);
+        }
+        return result;
+    }
+
+    private Result verify(String token) {
+        if (tokenBlacklistService.isTokenRevoked(token)) {
+            return new Result(null, Failure.REVOKED);
+        }
+
+        // ✅ Repeat requests with an already verified token skip parsing entirely
+        JwtAuthenticationCache.Entry cached = authenticationCache.get(token);
+        if (cached != null) {
+            return new Result(cached, null);
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("❌ Token invalid: {}", e.getMessage());
+            return new Result(null, Failure.INVALID);
+        }
+
+        Authentication authentication = toAuthentication(claims);
+        if (authentication == null) {
+            return new Result(null, Failure.PAYLOAD);
+        }
+        return new Result(authenticationCache.put(token, claims, authentication), null);
+    }
+
+    /**
+     * ✅ Build the authentication from the subject and first role of the token, or {@code null} if either is missing
+     */
+    static Authentication toAuthentication(Claims claims) {
+        String username = claims.getSubject();
+        List<?> roles = claims.get("roles", List.class);
+
+        if (username == null || roles == null || roles.isEmpty()) {
+            return null;
+        }
+
+        // ✅ Convert role to authority
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + roles.get(0));
+
+        User userDetails = new User(username, "", Collections.singletonList(authority));
+
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
+}
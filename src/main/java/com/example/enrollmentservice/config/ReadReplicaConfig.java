@@ -0,0 +1,80 @@
+package com.example.enrollmentservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * ✅ Read/write split, active once {@code enrollment.datasource.replica.url} is set: {@code @Transactional(readOnly = true)}
+ * work reads from the replica pool, everything else (and all reads while the replica lags) uses the primary.
+ * Flyway and the startup warm-ups run outside read-only transactions, so they always see the primary.
+ */
+@Configuration
+@ConditionalOnProperty("enrollment.datasource.replica.url")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${enrollment.datasource.replica.url}") String url,
+            @Value("${enrollment.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${enrollment.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${enrollment.datasource.replica.pool.max-size:20}") int maxSize,
+            @Value("${enrollment.datasource.replica.connect-timeout:PT2S}") Duration connectTimeout) {
+        HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(maxSize);
+        // ✅ A dead replica must not hold reads for Hikari's default 30 s before the lag check notices
+        replica.setConnectionTimeout(connectTimeout.toMillis());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            HikariDataSource replicaDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${enrollment.datasource.replica.lag-query}") String lagQuery,
+            @Value("${enrollment.datasource.replica.max-lag:PT5S}") Duration maxLag,
+            @Value("${enrollment.datasource.replica.connect-timeout:PT2S}") Duration queryTimeout) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag, queryTimeout, meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.enrollmentservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * ✅ Polls the replica's replication lag; reads are only routed there while it is reachable and within
+ * {@code enrollment.datasource.replica.max-lag}
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag, Duration queryTimeout,
+                             MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Gauge.builder("enrollment.replica.lag", this, m -> m.lagSeconds)
+                .description("Replication lag of the read replica (NaN while unreachable)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("enrollment.replica.usable", this, m -> m.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.datasource.replica.lag-check-interval:PT1S}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds <= maxLagSeconds;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable) {
+                log.warn("⚠️ Read replica unreachable, reading from the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable && !usable) {
+            log.warn("🐢 Read replica {}s behind (max {}s), reading from the primary", lagSeconds, maxLagSeconds);
+        } else if (!wasUsable && usable) {
+            log.info("📖 Read replica in sync ({}s behind), routing read-only transactions to it", lagSeconds);
+        }
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.enrollmentservice.config;
 
 import com.example.enrollmentservice.config.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,6 +15,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
@@ -24,14 +27,41 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // ✅ Async dispatches of streamed responses (export, roster, SSE) were authorized on the request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // ✅ GET all enrollments - only ADMIN
                         .requestMatchers(HttpMethod.GET, "/api/enrollments").hasRole("ADMIN")
 
                         // ✅ Get enrollments by userId - STUDENT and INSTRUCTOR can view their own
                         .requestMatchers(HttpMethod.GET, "/api/enrollments/user/**").hasAnyRole("STUDENT", "INSTRUCTOR")
 
+                        // ✅ Archived history - a user's like their enrollments, a course's like its headcount
+                        .requestMatchers(HttpMethod.GET, "/api/enrollments/archive/user/**").hasAnyRole("STUDENT", "INSTRUCTOR")
+                        .requestMatchers(HttpMethod.GET, "/api/enrollments/archive/course/**").hasAnyRole("INSTRUCTOR", "ADMIN")
+
+                        // ✅ Course headcounts - INSTRUCTOR and ADMIN
+                        .requestMatchers(HttpMethod.GET, "/api/enrollments/course/*/count").hasAnyRole("INSTRUCTOR", "ADMIN")
+
+                        // ✅ Course rosters - INSTRUCTOR and ADMIN
+                        .requestMatchers(HttpMethod.GET, "/api/enrollments/course/*/roster/**").hasAnyRole("INSTRUCTOR", "ADMIN")
+
+                        // ✅ Course seat limits - only ADMIN sets them
+                        .requestMatchers(HttpMethod.PUT, "/api/enrollments/course/*/capacity").hasRole("ADMIN")
+
+                        // ✅ Bulk status transitions and their jobs - only ADMIN
+                        .requestMatchers(HttpMethod.POST, "/api/enrollments/course/*/status").hasRole("ADMIN")
+                        .requestMatchers("/api/enrollments/status-jobs/**").hasRole("ADMIN")
+
                         // ✅ Check if enrolled - both STUDENT and INSTRUCTOR
                         .requestMatchers(HttpMethod.GET, "/api/enrollments/check").hasAnyRole("STUDENT", "INSTRUCTOR")
+                        .requestMatchers("/api/enrollments/check/batch").hasAnyRole("STUDENT", "INSTRUCTOR")
+
+                        // ✅ Change-event stream - only ADMIN
+                        .requestMatchers(HttpMethod.GET, "/api/enrollments/events").hasRole("ADMIN")
+
+                        // ✅ Bulk enroll a cohort - only ADMIN
+                        .requestMatchers(HttpMethod.POST, "/api/enrollments/bulk").hasRole("ADMIN")
 
                         // ✅ Enroll in course - STUDENT and INSTRUCTOR
 
@@ -45,6 +75,12 @@ public class SecurityConfig {
                                 "/swagger-ui.html"
                         ).permitAll()
 
+                        // ✅ Error dispatches of 404 / 409 responses must not be turned into 403
+                        .requestMatchers("/error").permitAll()
+
+                        // ✅ Health and Prometheus scrapes carry no JWT; keep /actuator off the public gateway
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                         // 🔐 Everything else must be authenticated
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,125 @@
+package com.example.enrollmentservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * ✅ Outbound client for the user service: pooled connections with connect / read timeouts, a bulkhead capping
+ * concurrent calls and a circuit breaker that fails fast while the service is down. Hosts are service ids
+ * resolved through discovery (Eureka).
+ */
+@Configuration
+@Slf4j
+public class UserServiceClientConfig {
+
+    public static final String USER_SERVICE = "userService";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager userServiceConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${enrollment.user-service.pool.max-connections:50}") int maxConnections,
+            @Value("${enrollment.user-service.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${enrollment.user-service.read-timeout:PT2S}") Duration readTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, USER_SERVICE).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient userServiceHttpClient(
+            PoolingHttpClientConnectionManager userServiceConnectionManager,
+            @Value("${enrollment.user-service.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${enrollment.user-service.read-timeout:PT2S}") Duration readTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(userServiceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // ✅ Waiting for a pooled connection is bounded like connecting
+                        .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate restTemplate(CloseableHttpClient userServiceHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(userServiceHttpClient));
+    }
+
+    @Bean
+    public Bulkhead userServiceBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${enrollment.user-service.bulkhead.max-concurrent-calls:40}") int maxConcurrentCalls,
+            @Value("${enrollment.user-service.bulkhead.max-wait:PT0.1S}") Duration maxWait) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(USER_SERVICE);
+    }
+
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${enrollment.user-service.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${enrollment.user-service.circuit-breaker.slow-call-threshold:PT1S}") Duration slowCallThreshold,
+            @Value("${enrollment.user-service.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${enrollment.user-service.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${enrollment.user-service.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+            @Value("${enrollment.user-service.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                // ✅ Only an unreachable / failing service trips it: 4xx answers are about the token, not the service
+                .recordExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(USER_SERVICE);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("⚡ User service circuit breaker {}", event.getStateTransition()));
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.enrollmentservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * ✅ Opt-in virtual-thread mode ({@code enrollment.virtual-threads.enabled=true}, Java 21+).
+ * <p>
+ * Tomcat hands every request to a new virtual thread, so blocking on JDBC or on the user service call no longer
+ * holds a platform thread; MVC async work such as the export stream runs on virtual threads too. The project still
+ * compiles for Java 17, so the executor is looked up reflectively. Pinning (blocking while inside a
+ * {@code synchronized} block, which keeps the carrier thread busy) is watched through JFR and reported as
+ * {@code enrollment.virtual_threads.pinned} plus one warning per distinct call site.
+ * With the property off none of this is created and Tomcat keeps its platform thread pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "enrollment.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfig {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final ExecutorService virtualThreads;
+    private final RecordingStream pinningEvents;
+
+    public VirtualThreadsConfig(MeterRegistry meterRegistry,
+                                @Value("${enrollment.virtual-threads.pinned-threshold:PT0.02S}") Duration pinnedThreshold) {
+        this.virtualThreads = newVirtualThreadPerTaskExecutor();
+        this.pinningEvents = watchPinning(meterRegistry, pinnedThreshold);
+        log.info("🧵 Virtual-thread mode on: requests and async work run on virtual threads");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreads);
+    }
+
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(virtualThreads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pinningEvents.close();
+        virtualThreads.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("enrollment.virtual-threads.enabled needs Java 21 or newer, running on "
+                    + Runtime.version());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual-thread executor", e);
+        }
+    }
+
+    private static RecordingStream watchPinning(MeterRegistry meterRegistry, Duration threshold) {
+        Counter pinned = Counter.builder("enrollment.virtual_threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+        Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            if (event.getStackTrace() == null) {
+                return;
+            }
+            String site = event.getStackTrace().getFrames().stream()
+                    .limit(24)
+                    .map(VirtualThreadsConfig::describe)
+                    .collect(Collectors.joining("\n\tat "));
+            if (reportedSites.add(site)) {
+                log.warn("📌 Virtual thread pinned for {} ms at\n\tat {}", event.getDuration().toMillis(), site);
+            }
+        });
+        stream.startAsync();
+        return stream;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -1,42 +1,82 @@
 package com.example.enrollmentservice.controller;
 
 import com.example.enrollmentservice.dto.ApiResponse;
+import com.example.enrollmentservice.dto.BulkEnrollmentRequest;
+import com.example.enrollmentservice.dto.BulkEnrollmentResult;
+import com.example.enrollmentservice.dto.CourseCapacityRequest;
+import com.example.enrollmentservice.dto.CourseCapacityResponse;
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.EnrollmentCheckRequest;
 import com.example.enrollmentservice.dto.EnrollmentRequest;
 import com.example.enrollmentservice.dto.EnrollmentResponse;
-import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.dto.RosterEntry;
+import com.example.enrollmentservice.dto.StatusTransitionJobResponse;
+import com.example.enrollmentservice.dto.StatusTransitionRequest;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.service.EnrollmentArchive;
 import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.IdempotencyStore;
+import com.example.enrollmentservice.service.SeatAllocator;
+import com.example.enrollmentservice.service.StatusTransitionService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 @Tag(name = "Enrollments", description = "Course enrollment operations")
 @RestController
 @RequestMapping("/api/enrollments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class EnrollmentController {
-    @Autowired
-    private EnrollmentRepository enrollmentRepository;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final MediaType NDJSON_TYPE = MediaType.parseMediaType(NDJSON);
+
     private final EnrollmentService enrollmentService;
+    private final EnrollmentExportWriter exportWriter;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentEventStream eventStream;
+    private final IdempotencyStore idempotencyStore;
+    private final StatusTransitionService statusTransitionService;
+    private final EnrollmentArchive enrollmentArchive;
     @Operation(
             summary = "Enroll user in course",
-            description = "Enrolls a student or instructor in the specified course. Prevents duplicate enrollments."
+            description = "Enrolls a student or instructor in the specified course. Prevents duplicate enrollments. "
+                    + "Retries sent with the same Idempotency-Key get the original result."
     )
     @PostMapping
     public ResponseEntity<ApiResponse<EnrollmentResponse>> enroll(
             @RequestBody EnrollmentRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             HttpServletRequest httpRequest) {
 
-        EnrollmentResponse response = enrollmentService.enrollUser(request, httpRequest);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return idempotencyStore.execute(idempotencyKey, httpRequest, request, () -> {
+            EnrollmentResponse response = enrollmentService.enrollUser(request, httpRequest);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
+    }
+
+    @Operation(
+            summary = "Bulk enroll users in a course",
+            description = "Enrolls a cohort of users into one course and reports an outcome per user. Admin access only."
+    )
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<List<BulkEnrollmentResult>>> bulkEnroll(@RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.bulkEnroll(request)));
     }
 
     @Operation(
@@ -49,14 +89,36 @@ public class EnrollmentController {
         return ResponseEntity.ok(all);
     }
 
+    @Operation(
+            summary = "Export all enrollments",
+            description = "Streams every enrollment as NDJSON (Accept: application/x-ndjson) or CSV (Accept: text/csv) " +
+                    "in constant memory. Admin access only."
+    )
+    @GetMapping(produces = {NDJSON, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportAllEnrollments(
+            @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        if (MediaType.parseMediaTypes(accept).stream().anyMatch(NDJSON_TYPE::isCompatibleWith)) {
+            return ResponseEntity.ok().contentType(NDJSON_TYPE).body(exportWriter.ndjson());
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"enrollments.csv\"")
+                .body(exportWriter.csv());
+    }
+
     @Operation(
             summary = "Unenroll user from course",
-            description = "Allows a student or instructor to unenroll from a specific course."
+            description = "Allows a student or instructor to unenroll from a specific course. "
+                    + "Retries sent with the same Idempotency-Key get the original result."
     )
     @DeleteMapping
-    public ResponseEntity<?> unenrollUser(@RequestBody EnrollmentRequest request, HttpServletRequest httpRequest) {
-        enrollmentService.unenrollUser(request, httpRequest);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<?> unenrollUser(@RequestBody EnrollmentRequest request,
+                                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                          HttpServletRequest httpRequest) {
+        return idempotencyStore.execute(idempotencyKey, httpRequest, request, () -> {
+            enrollmentService.unenrollUser(request, httpRequest);
+            return ResponseEntity.ok().build();
+        });
     }
 
     @Operation(
@@ -72,6 +134,43 @@ public class EnrollmentController {
         return ResponseEntity.ok(ApiResponse.success(enrollments));
     }
 
+    @Operation(
+            summary = "Get user's archived enrollments",
+            description = "Paginated history of finished (COMPLETED / CANCELLED) enrollments moved out of the active table."
+    )
+    @GetMapping("/archive/user/{userId}")
+    public ResponseEntity<ApiResponse<Page<EnrollmentResponse>>> getArchivedUserEnrollments(
+            @PathVariable Long userId,
+            @PageableDefault(size = 20) Pageable pageable
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentArchive.getUserHistory(userId, pageable)));
+    }
+
+    @Operation(
+            summary = "Get course's archived enrollments",
+            description = "Paginated history of a course's finished enrollments moved out of the active table."
+    )
+    @GetMapping("/archive/course/{courseId}")
+    public ResponseEntity<ApiResponse<Page<EnrollmentResponse>>> getArchivedCourseEnrollments(
+            @PathVariable Long courseId,
+            @PageableDefault(size = 20) Pageable pageable
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentArchive.getCourseHistory(courseId, pageable)));
+    }
+
+    @Operation(
+            summary = "Get user's enrollments by cursor",
+            description = "Keyset-paginated enrollments ordered by enrollment date. Pass the returned nextCursor to get the next slice."
+    )
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<EnrollmentResponse>>> getUserEnrollmentsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.getUserEnrollmentsAfter(userId, cursor, size)));
+    }
+
 
 
     @Operation(
@@ -86,10 +185,146 @@ public class EnrollmentController {
         boolean isEnrolled = enrollmentService.isUserEnrolled(userId, courseId);
         return ResponseEntity.ok(Map.of("enrolled", isEnrolled));
     }
+
+    @Operation(
+            summary = "Check enrollment in many courses",
+            description = "Returns a courseId → true/false map for one user and a list of courses."
+    )
+    @GetMapping("/check/batch")
+    public ResponseEntity<?> checkEnrollments(
+            @RequestParam Long userId,
+            @RequestParam List<Long> courseIds) {
+        return ResponseEntity.ok(Map.of("enrolled", enrollmentService.areUserEnrolled(userId, courseIds)));
+    }
+
+    @Operation(
+            summary = "Check many (user, course) pairs",
+            description = "Returns a userId → courseId → true/false map for the given pairs."
+    )
+    @PostMapping("/check/batch")
+    public ResponseEntity<?> checkEnrollmentPairs(@RequestBody List<EnrollmentCheckRequest> checks) {
+        return ResponseEntity.ok(Map.of("enrolled", enrollmentService.areUsersEnrolled(checks)));
+    }
+
+    @Operation(
+            summary = "Count user's enrollments",
+            description = "Returns how many enrollments the user has, optionally only those in the given status."
+    )
     @GetMapping("/user/{userId}/count")
-    public long countEnrollmentsByUser(@PathVariable Long userId) {
-        return enrollmentRepository.countByUserId(userId);
+    public long countEnrollmentsByUser(@PathVariable Long userId,
+                                       @RequestParam(required = false) EnrollmentStatus status) {
+        return enrollmentService.countUserEnrollments(userId, status);
+    }
+
+    @Operation(
+            summary = "Count course's enrollments",
+            description = "Returns the headcount of a course, optionally only enrollments in the given status."
+    )
+    @GetMapping("/course/{courseId}/count")
+    public long countEnrollmentsByCourse(@PathVariable Long courseId,
+                                         @RequestParam(required = false) EnrollmentStatus status) {
+        return enrollmentService.countCourseEnrollments(courseId, status);
+    }
+    @Operation(
+            summary = "Set course capacity",
+            description = "Sets the seat limit of a course. Enrollments beyond it are rejected with 409. Admin access only."
+    )
+    @PutMapping("/course/{courseId}/capacity")
+    public ResponseEntity<ApiResponse<CourseCapacityResponse>> setCourseCapacity(
+            @PathVariable Long courseId,
+            @RequestBody CourseCapacityRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(seatAllocator.setCapacity(courseId, request.seatLimit())));
+    }
+
+    @Operation(
+            summary = "Get course capacity",
+            description = "Returns the seat limit of a course and how many seats are taken."
+    )
+    @GetMapping("/course/{courseId}/capacity")
+    public ResponseEntity<ApiResponse<CourseCapacityResponse>> getCourseCapacity(@PathVariable Long courseId) {
+        return ResponseEntity.ok(ApiResponse.success(seatAllocator.getCapacity(courseId)));
+    }
+
+    @Operation(
+            summary = "Get course roster",
+            description = "Keyset-paginated members of a course ordered by userId. Pass the returned nextCursor to get "
+                    + "the next slice. Instructors and admins only."
+    )
+    @GetMapping("/course/{courseId}/roster")
+    public ResponseEntity<ApiResponse<CursorPage<RosterEntry>>> getCourseRoster(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.getCourseRoster(courseId, cursor, size)));
+    }
+
+    @Operation(
+            summary = "Get course roster user ids",
+            description = "Compact roster: only the user ids of a course, ordered, in slices of up to 5000. "
+                    + "Instructors and admins only."
+    )
+    @GetMapping("/course/{courseId}/roster/user-ids")
+    public ResponseEntity<ApiResponse<CursorPage<Long>>> getCourseRosterUserIds(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int size
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.getCourseRosterUserIds(courseId, cursor, size)));
+    }
+
+    @Operation(
+            summary = "Stream course roster",
+            description = "Streams the whole roster of a course as NDJSON (Accept: application/x-ndjson) in constant memory. "
+                    + "Instructors and admins only."
+    )
+    @GetMapping(value = "/course/{courseId}/roster", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCourseRoster(@PathVariable Long courseId) {
+        return ResponseEntity.ok().contentType(NDJSON_TYPE).body(exportWriter.rosterNdjson(courseId));
+    }
+
+    @Operation(
+            summary = "Change the status of a course's enrollments",
+            description = "Starts a background job moving every enrollment of the course from one status (default ENROLLED) "
+                    + "to COMPLETED or CANCELLED, in chunks. Returns 202 with the job to poll. Admin access only."
+    )
+    @PostMapping("/course/{courseId}/status")
+    public ResponseEntity<ApiResponse<StatusTransitionJobResponse>> transitionCourseStatus(
+            @PathVariable Long courseId,
+            @RequestBody StatusTransitionRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(statusTransitionService.start(courseId, request)));
+    }
+
+    @Operation(
+            summary = "Get a status transition job",
+            description = "Progress of a status transition job: how many enrollments were changed out of the total. Admin access only."
+    )
+    @GetMapping("/status-jobs/{jobId}")
+    public ResponseEntity<ApiResponse<StatusTransitionJobResponse>> getStatusTransitionJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(ApiResponse.success(statusTransitionService.getJob(jobId)));
+    }
+
+    @Operation(
+            summary = "Resume a failed status transition job",
+            description = "Continues a failed job after the last chunk it committed. Admin access only."
+    )
+    @PostMapping("/status-jobs/{jobId}/resume")
+    public ResponseEntity<ApiResponse<StatusTransitionJobResponse>> resumeStatusTransitionJob(@PathVariable Long jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(statusTransitionService.resume(jobId)));
     }
+
+    @Operation(
+            summary = "Stream enrollment changes",
+            description = "Server-sent events for every committed enroll / unenroll / status change / archiving, named by event type. "
+                    + "Reconnect with Last-Event-ID to replay what was missed. Admin access only."
+    )
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return eventStream.subscribe(lastEventId);
+    }
+
     @Operation(
             summary = "Get enrollment by ID",
             description = "Returns enrollment details (userId and courseId) by enrollment ID"
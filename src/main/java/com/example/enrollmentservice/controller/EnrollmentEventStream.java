@@ -0,0 +1,178 @@
+package com.example.enrollmentservice.controller;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import com.example.enrollmentservice.service.OutboxRelay;
+import com.example.enrollmentservice.service.PublishedEventListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ✅ Server-sent events for every published enrollment change, whichever node relayed it: the events come from this
+ * node's {@link com.example.enrollmentservice.service.OutboxTail}, in publish order.
+ * <p>
+ * The SSE id is the event's publish sequence, so a client reconnecting with {@code Last-Event-ID} first gets what
+ * it missed from the retained outbox rows, then the live events, without gaps or reordering. Each subscriber has
+ * its own queue drained on a sender thread, so a slow client only delays itself; one that falls more than
+ * {@code replay-limit} events behind is disconnected and resumes with {@code Last-Event-ID}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class EnrollmentEventStream implements PublishedEventListener {
+
+    private final EnrollmentEventRepository eventRepository;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final long timeoutMillis;
+    private final int replayLimit;
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "sse-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EnrollmentEventStream(EnrollmentEventRepository eventRepository,
+                                 @Value("${enrollment.outbox.sse.timeout:PT30M}") Duration timeout,
+                                 @Value("${enrollment.outbox.sse.replay-limit:10000}") int replayLimit) {
+        this.eventRepository = eventRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.replayLimit = replayLimit;
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, lastEventId != null ? lastEventId : -1);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // ✅ Registered before the replay query: live events arriving meanwhile are held back until the replay is queued
+        subscribers.add(subscriber);
+        List<EnrollmentEventMessage> replay = lastEventId == null ? List.of()
+                : eventRepository.findPublishedAfter(lastEventId, PageRequest.ofSize(replayLimit)).stream()
+                        .map(OutboxRelay::toMessage)
+                        .toList();
+        subscriber.start(replay);
+        log.debug("📡 Enrollment event subscriber connected ({} total)", subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public void onPublished(List<EnrollmentEventMessage> events) {
+        subscribers.forEach(subscriber -> subscriber.offer(events));
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<EnrollmentEventMessage> queue = new ArrayDeque<>();
+        private List<EnrollmentEventMessage> heldBack = new ArrayList<>();
+        private long lastSent;
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        private synchronized void start(List<EnrollmentEventMessage> replay) {
+            List<EnrollmentEventMessage> live = heldBack;
+            heldBack = null;
+            enqueue(replay);
+            enqueue(live);
+        }
+
+        private synchronized void offer(List<EnrollmentEventMessage> events) {
+            if (heldBack != null) {
+                heldBack.addAll(events);
+            } else {
+                enqueue(events);
+            }
+        }
+
+        private void enqueue(List<EnrollmentEventMessage> events) {
+            if (closed || events.isEmpty()) {
+                return;
+            }
+            if (queue.size() + events.size() > replayLimit) {
+                close("fell " + (queue.size() + events.size()) + " events behind");
+                return;
+            }
+            queue.addAll(events);
+            if (!sending) {
+                sending = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * ✅ Runs on a sender thread, never while holding the subscriber lock or inside a transaction
+         */
+        private void drain() {
+            while (true) {
+                List<EnrollmentEventMessage> batch;
+                synchronized (this) {
+                    if (closed || queue.isEmpty()) {
+                        sending = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(queue);
+                    queue.clear();
+                }
+                try {
+                    for (EnrollmentEventMessage event : batch) {
+                        // ✅ Replayed and live events overlap; the sequence says which were sent already
+                        if (event.sequence() <= lastSent) {
+                            continue;
+                        }
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.sequence()))
+                                .name(event.type().name())
+                                .data(event, MediaType.APPLICATION_JSON));
+                        lastSent = event.sequence();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        sending = false;
+                        close(e.getMessage());
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void close(String reason) {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+            emitter.complete();
+            log.debug("📴 Dropping enrollment event subscriber: {}", reason);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.enrollmentservice.dto;
+
+import java.util.List;
+
+public record BulkEnrollmentRequest(Long courseId, List<Long> userIds) {}
@@ -0,0 +1,10 @@
+package com.example.enrollmentservice.dto;
+
+public record BulkEnrollmentResult(Long userId, Outcome outcome, Long enrollmentId) {
+
+    public enum Outcome {
+        ENROLLED,
+        ALREADY_ENROLLED,
+        DUPLICATE_IN_REQUEST
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.enrollmentservice.dto;
+
+public record CourseCapacityRequest(Integer seatLimit) {}
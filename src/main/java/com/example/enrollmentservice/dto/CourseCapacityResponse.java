@@ -0,0 +1,3 @@
+package com.example.enrollmentservice.dto;
+
+public record CourseCapacityResponse(Long courseId, int seatLimit, int seatsTaken) {}
@@ -0,0 +1,8 @@
+package com.example.enrollmentservice.dto;
+
+import java.util.List;
+
+/**
+ * ✅ One slice of a keyset-paginated listing; {@code nextCursor} is null on the last slice
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {}
@@ -0,0 +1,3 @@
+package com.example.enrollmentservice.dto;
+
+public record EnrollmentCheckRequest(Long userId, Long courseId) {}
@@ -0,0 +1,20 @@
+package com.example.enrollmentservice.dto;
+
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ Published form of an outbox event. {@code id} identifies the event; {@code sequence} is its position in publish
+ * order, strictly increasing in commit order across all nodes, and is what consumers resume from.
+ */
+public record EnrollmentEventMessage(Long id,
+                                     Long sequence,
+                                     EnrollmentEventType type,
+                                     Long enrollmentId,
+                                     Long userId,
+                                     Long courseId,
+                                     EnrollmentStatus status,
+                                     EnrollmentStatus previousStatus,
+                                     LocalDateTime occurredAt) {}
@@ -0,0 +1,10 @@
+package com.example.enrollmentservice.dto;
+
+import com.example.enrollmentservice.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ One member of a course roster, read straight into this record (no Enrollment entity is loaded)
+ */
+public record RosterEntry(Long userId, LocalDateTime enrolledAt, EnrollmentStatus status) {}
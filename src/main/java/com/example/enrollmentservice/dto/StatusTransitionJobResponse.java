@@ -0,0 +1,23 @@
+package com.example.enrollmentservice.dto;
+
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.model.StatusTransitionJob;
+
+import java.time.LocalDateTime;
+
+public record StatusTransitionJobResponse(Long jobId,
+                                          Long courseId,
+                                          EnrollmentStatus from,
+                                          EnrollmentStatus to,
+                                          StatusTransitionJob.State state,
+                                          long processed,
+                                          long total,
+                                          String error,
+                                          LocalDateTime createdAt,
+                                          LocalDateTime updatedAt) {
+
+    public static StatusTransitionJobResponse of(StatusTransitionJob job) {
+        return new StatusTransitionJobResponse(job.getId(), job.getCourseId(), job.getFromStatus(), job.getToStatus(),
+                job.getState(), job.getProcessed(), job.getTotal(), job.getError(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
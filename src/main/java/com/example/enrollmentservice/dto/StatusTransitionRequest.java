@@ -0,0 +1,6 @@
+package com.example.enrollmentservice.dto;
+
+import com.example.enrollmentservice.model.EnrollmentStatus;
+
+/** Move a course's enrollments from {@code from} (default ENROLLED) to {@code to} */
+public record StatusTransitionRequest(EnrollmentStatus from, EnrollmentStatus to) {}
@@ -0,0 +1,34 @@
+package com.example.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ A finished enrollment moved out of the hot table; keeps its original id. Rows are written by the archiver's
+ * INSERT ... SELECT, never through this entity.
+ */
+@Entity
+@Table(name = "enrollments_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedEnrollment {
+
+    @Id
+    private Long id;
+
+    private Long userId;
+    private Long courseId;
+
+    private LocalDateTime enrolledAt;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnrollmentStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
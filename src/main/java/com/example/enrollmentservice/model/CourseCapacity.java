@@ -0,0 +1,23 @@
+package com.example.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "course_capacity")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CourseCapacity {
+
+    @Id
+    private Long courseId;
+
+    // ✅ null for an unlimited course: its row only counts the seats taken
+    private Integer seatLimit;
+
+    @Column(nullable = false)
+    private int seatsTaken;
+}
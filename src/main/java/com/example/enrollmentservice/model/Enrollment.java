@@ -11,19 +11,28 @@ import com.example.enrollmentservice.model.EnrollmentStatus;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enrollments")
+// ✅ Mirrors db/migration; the schema itself is created by Flyway
+@Table(name = "enrollments",
+        uniqueConstraints = @UniqueConstraint(name = Enrollment.USER_COURSE_CONSTRAINT, columnNames = {"userId", "courseId"}),
+        indexes = @Index(name = "idx_enrollments_user_enrolled_at", columnList = "userId, enrolledAt, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class Enrollment {
 
+    public static final String USER_COURSE_CONSTRAINT = "uk_enrollments_user_course";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ✅ Pooled sequence: ids are handed out in blocks, so Hibernate can batch inserts (IDENTITY cannot)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollments_seq")
+    @SequenceGenerator(name = "enrollments_seq", sequenceName = "enrollments_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
     private Long courseId;
 
+    // ✅ Leading column of the keyset cursor, so every row must have one
+    @Column(nullable = false)
     private LocalDateTime enrolledAt;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -0,0 +1,52 @@
+package com.example.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ One row of the transactional outbox: an enrollment change waiting to be (or already) published
+ */
+@Entity
+@Table(name = "enrollment_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EnrollmentEvent {
+
+    @Id
+    // ✅ Pooled like enrollments_seq, so bulk enrollments batch their events too
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_outbox_seq")
+    @SequenceGenerator(name = "enrollment_outbox_seq", sequenceName = "enrollment_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EnrollmentEventType type;
+
+    @Column(nullable = false)
+    private Long enrollmentId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    private EnrollmentStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private EnrollmentStatus previousStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    private LocalDateTime publishedAt;
+
+    // ✅ Publish order, set together with publishedAt; what subscribers tail and replay on
+    private Long publishSeq;
+}
@@ -0,0 +1,8 @@
+package com.example.enrollmentservice.model;
+
+public enum EnrollmentEventType {
+    ENROLLED,
+    UNENROLLED,
+    STATUS_CHANGED,
+    ARCHIVED
+}
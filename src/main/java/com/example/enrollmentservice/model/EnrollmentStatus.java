@@ -3,5 +3,12 @@ package com.example.enrollmentservice.model;
 public enum EnrollmentStatus {
     ENROLLED,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * ✅ Allowed transitions: an active enrollment ends as COMPLETED or CANCELLED, both are final
+     */
+    public boolean canBecome(EnrollmentStatus next) {
+        return this == ENROLLED && (next == COMPLETED || next == CANCELLED);
+    }
 }
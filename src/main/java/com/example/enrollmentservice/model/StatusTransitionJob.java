@@ -0,0 +1,67 @@
+package com.example.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ A bulk status transition of one course's enrollments; {@code lastId} is where the next chunk starts.
+ * While RUNNING it is leased by {@code owner}, who renews the lease by touching {@code updatedAt} every chunk.
+ */
+@Entity
+@Table(name = "status_transition_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class StatusTransitionJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    // ✅ Partial unique index on (course_id) WHERE state = 'RUNNING', PostgreSQL only
+    public static final String RUNNING_COURSE_CONSTRAINT = "uk_status_transition_jobs_running_course";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "status_transition_jobs_seq")
+    @SequenceGenerator(name = "status_transition_jobs_seq", sequenceName = "status_transition_jobs_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnrollmentStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EnrollmentStatus toStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private State state;
+
+    @Column(nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long total;
+
+    private String error;
+
+    private String owner;
+
+    @Version
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
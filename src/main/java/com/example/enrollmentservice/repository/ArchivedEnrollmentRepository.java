@@ -0,0 +1,40 @@
+package com.example.enrollmentservice.repository;
+
+import com.example.enrollmentservice.model.ArchivedEnrollment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedEnrollmentRepository extends JpaRepository<ArchivedEnrollment, Long> {
+
+    @Transactional(readOnly = true)
+    Page<ArchivedEnrollment> findByUserId(Long userId, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    Page<ArchivedEnrollment> findByCourseId(Long courseId, Pageable pageable);
+
+    boolean existsByUserIdAndCourseId(Long userId, Long courseId);
+
+    @Query("SELECT a.userId FROM ArchivedEnrollment a WHERE a.courseId = :courseId AND a.userId IN :userIds")
+    List<Long> findArchivedUserIds(@Param("courseId") Long courseId, @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT a.userId AS userId, a.courseId AS courseId FROM ArchivedEnrollment a " +
+            "WHERE a.userId IN :userIds AND a.courseId IN :courseIds")
+    List<EnrollmentRepository.Membership> findArchivedMemberships(@Param("userIds") Collection<Long> userIds,
+                                                                  @Param("courseIds") Collection<Long> courseIds);
+
+    /** Copies the rows in the database, without loading them */
+    @Modifying
+    @Query(value = "INSERT INTO enrollments_archive (id, user_id, course_id, enrolled_at, status, archived_at) " +
+            "SELECT id, user_id, course_id, enrolled_at, status, :archivedAt FROM enrollments WHERE id IN :ids",
+            nativeQuery = true)
+    int copyFromEnrollments(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,45 @@
+package com.example.enrollmentservice.repository;
+
+import com.example.enrollmentservice.model.CourseCapacity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CourseCapacityRepository extends JpaRepository<CourseCapacity, Long> {
+
+    /** Takes seats only if they are all free or the course is unlimited; returns 0 when full or without a row */
+    @Modifying
+    @Query("UPDATE CourseCapacity c SET c.seatsTaken = c.seatsTaken + :seats " +
+            "WHERE c.courseId = :courseId AND (c.seatLimit IS NULL OR c.seatsTaken + :seats <= c.seatLimit)")
+    int tryTakeSeats(@Param("courseId") Long courseId, @Param("seats") int seats);
+
+    /** Creates an unlimited row for the course's first seats; a row created concurrently is waited for and kept */
+    @Modifying
+    @Query(value = "INSERT INTO course_capacity (course_id, seat_limit, seats_taken) VALUES (:courseId, NULL, 0) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertUnlimited(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("UPDATE CourseCapacity c SET c.seatsTaken = c.seatsTaken - :seats " +
+            "WHERE c.courseId = :courseId AND c.seatsTaken >= :seats")
+    int releaseSeats(@Param("courseId") Long courseId, @Param("seats") int seats);
+
+    /**
+     * Creates the course's row starting from its ENROLLED headcount, counted by the same statement;
+     * returns 0 when the row already exists
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO course_capacity (course_id, seat_limit, seats_taken) " +
+            "SELECT :courseId, :seatLimit, " +
+            "(SELECT COUNT(*) FROM enrollments WHERE course_id = :courseId AND status = 'ENROLLED') " +
+            "WHERE NOT EXISTS (SELECT 1 FROM course_capacity WHERE course_id = :courseId)", nativeQuery = true)
+    int insertCountingEnrolled(@Param("courseId") Long courseId, @Param("seatLimit") int seatLimit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CourseCapacity c SET c.seatLimit = :seatLimit WHERE c.courseId = :courseId")
+    int updateSeatLimit(@Param("courseId") Long courseId, @Param("seatLimit") int seatLimit);
+}
@@ -0,0 +1,47 @@
+package com.example.enrollmentservice.repository;
+
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EnrollmentEventRepository extends JpaRepository<EnrollmentEvent, Long> {
+
+    /** Oldest unpublished events, locked; rows another relay has claimed are skipped instead of waited for */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT e FROM EnrollmentEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<EnrollmentEvent> claimUnpublished(Pageable limit);
+
+    /**
+     * Takes the next {@code count} publish sequence numbers. The counter row stays locked until the caller commits,
+     * so relays on different nodes publish one after the other and sequence order is commit order.
+     */
+    @Modifying
+    @Query(value = "UPDATE enrollment_outbox_publish_counter SET last_seq = last_seq + :count WHERE id = 1",
+            nativeQuery = true)
+    int reservePublishSeq(@Param("count") int count);
+
+    /** The highest reserved number; read after {@link #reservePublishSeq} in the same transaction */
+    @Query(value = "SELECT last_seq FROM enrollment_outbox_publish_counter WHERE id = 1", nativeQuery = true)
+    long lastPublishSeq();
+
+    /** Published events in publish order, for tailing nodes and for consumers reconnecting with the last one they saw */
+    @Transactional(readOnly = true)
+    @Query("SELECT e FROM EnrollmentEvent e WHERE e.publishSeq > :afterSeq ORDER BY e.publishSeq")
+    List<EnrollmentEvent> findPublishedAfter(@Param("afterSeq") long afterSeq, Pageable limit);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT COALESCE(MAX(e.publishSeq), 0) FROM EnrollmentEvent e")
+    long maxPublishSeq();
+
+    @Modifying
+    @Query("DELETE FROM EnrollmentEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
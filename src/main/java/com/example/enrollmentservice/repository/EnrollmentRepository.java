@@ -1,23 +1,170 @@
 package com.example.enrollmentservice.repository;
 
 import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.dto.RosterEntry;
 import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    /** Row count of one user or course in one status */
+    interface StatusCount {
+        Long getId();
+        EnrollmentStatus getStatus();
+        long getTotal();
+    }
+
+    /** (userId, courseId) pair without loading the entity */
+    interface Membership {
+        Long getUserId();
+        Long getCourseId();
+    }
+
     EnrollmentResponse getEnrollmentById(Long id);
+    // ✅ Read-only like the SimpleJpaRepository finders, so list / check / count reads can use a read replica
+    @Transactional(readOnly = true)
     Optional<Enrollment> findByUserIdAndCourseId(Long userId, Long courseId);
+    @Transactional(readOnly = true)
     Page<Enrollment> findByUserId(Long userId, Pageable pageable);
+
+    // ✅ Keyset pagination: List return types skip the COUNT query, the Pageable only carries the limit
+    @Transactional(readOnly = true)
+    List<Enrollment> findByUserIdOrderByEnrolledAtAscIdAsc(Long userId, Pageable limit);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT e FROM Enrollment e WHERE e.userId = :userId " +
+            "AND (e.enrolledAt > :enrolledAt OR (e.enrolledAt = :enrolledAt AND e.id > :id)) " +
+            "ORDER BY e.enrolledAt, e.id")
+    List<Enrollment> findByUserIdAfter(@Param("userId") Long userId,
+                                       @Param("enrolledAt") LocalDateTime enrolledAt,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+    @Transactional(readOnly = true)
     @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.userId = :userId")
     long countByUserId(@Param("userId") Long userId);
 
+    @Transactional(readOnly = true)
+    long countByUserIdAndStatus(Long userId, EnrollmentStatus status);
+
+    @Transactional(readOnly = true)
+    long countByCourseId(Long courseId);
+
+    @Transactional(readOnly = true)
+    long countByCourseIdAndStatus(Long courseId, EnrollmentStatus status);
+
+    @Query("SELECT e.userId AS id, e.status AS status, COUNT(e) AS total FROM Enrollment e GROUP BY e.userId, e.status")
+    List<StatusCount> countGroupedByUserAndStatus();
+
+    @Query("SELECT e.courseId AS id, e.status AS status, COUNT(e) AS total FROM Enrollment e GROUP BY e.courseId, e.status")
+    List<StatusCount> countGroupedByCourseAndStatus();
+
+    @Transactional(readOnly = true)
+    @Query("SELECT e.courseId FROM Enrollment e WHERE e.userId = :userId AND e.courseId IN :courseIds")
+    List<Long> findEnrolledCourseIds(@Param("userId") Long userId, @Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId AND e.userId IN :userIds")
+    List<Long> findEnrolledUserIds(@Param("courseId") Long courseId, @Param("userIds") Collection<Long> userIds);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT e.userId AS userId, e.courseId AS courseId FROM Enrollment e " +
+            "WHERE e.userId IN :userIds AND e.courseId IN :courseIds")
+    List<Membership> findMemberships(@Param("userIds") Collection<Long> userIds,
+                                     @Param("courseIds") Collection<Long> courseIds);
+
+    /** Rows are mapped straight to DTOs so the persistence context stays empty while streaming */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.example.enrollmentservice.dto.EnrollmentResponse(e.id, e.userId, e.courseId, e.enrolledAt, e.status) " +
+            "FROM Enrollment e ORDER BY e.id")
+    Stream<EnrollmentResponse> streamAllAsResponses();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT e.userId AS userId, e.courseId AS courseId FROM Enrollment e")
+    Stream<Membership> streamAllMemberships();
+
+    /** Enrollment id and its user, for set-based updates that still report per row */
+    interface IdAndUser {
+        Long getId();
+        Long getUserId();
+    }
+
+    /**
+     * Next chunk of a course's rows in one status after {@code afterId}, locked until the chunk's transaction ends.
+     * Native because the lock has to cover a projection; FOR UPDATE with LIMIT reads the same on H2 and PostgreSQL.
+     */
+    @Query(value = "SELECT id AS id, user_id AS userId FROM enrollments " +
+            "WHERE course_id = :courseId AND status = :status AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<IdAndUser> lockChunk(@Param("courseId") Long courseId,
+                              @Param("status") String status,
+                              @Param("afterId") long afterId,
+                              @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.status = :status WHERE e.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") EnrollmentStatus status);
+
+    /** A row about to be archived: enough to keep the in-memory views in step without loading the entity */
+    interface Finished {
+        Long getId();
+        Long getUserId();
+        Long getCourseId();
+        EnrollmentStatus getStatus();
+    }
+
+    /**
+     * Next finished rows enrolled before the cut-off, locked until they are moved. Rows another archiver holds are
+     * skipped (SKIP LOCKED where the dialect has it, e.g. PostgreSQL), so concurrent archivers split the work.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT e.id AS id, e.userId AS userId, e.courseId AS courseId, e.status AS status FROM Enrollment e " +
+            "WHERE e.status IN :statuses AND e.enrolledAt < :before ORDER BY e.id")
+    List<Finished> lockFinishedBefore(@Param("statuses") Collection<EnrollmentStatus> statuses,
+                                      @Param("before") LocalDateTime before,
+                                      Pageable limit);
+
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // ✅ Course rosters, keyset-paginated by userId along idx_enrollments_course_user
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.enrollmentservice.dto.RosterEntry(e.userId, e.enrolledAt, e.status) " +
+            "FROM Enrollment e WHERE e.courseId = :courseId AND e.userId > :afterUserId ORDER BY e.userId")
+    List<RosterEntry> findRoster(@Param("courseId") Long courseId,
+                                 @Param("afterUserId") Long afterUserId,
+                                 Pageable limit);
 
+    /** Answered from the index alone */
+    @Transactional(readOnly = true)
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId AND e.userId > :afterUserId ORDER BY e.userId")
+    List<Long> findRosterUserIds(@Param("courseId") Long courseId,
+                                 @Param("afterUserId") Long afterUserId,
+                                 Pageable limit);
 
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.example.enrollmentservice.dto.RosterEntry(e.userId, e.enrolledAt, e.status) " +
+            "FROM Enrollment e WHERE e.courseId = :courseId ORDER BY e.userId")
+    Stream<RosterEntry> streamRoster(@Param("courseId") Long courseId);
 }
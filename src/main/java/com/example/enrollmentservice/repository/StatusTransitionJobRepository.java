@@ -0,0 +1,14 @@
+package com.example.enrollmentservice.repository;
+
+import com.example.enrollmentservice.model.StatusTransitionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StatusTransitionJobRepository extends JpaRepository<StatusTransitionJob, Long> {
+
+    boolean existsByCourseIdAndState(Long courseId, StatusTransitionJob.State state);
+
+    List<StatusTransitionJob> findByStateAndUpdatedAtBefore(StatusTransitionJob.State state, LocalDateTime before);
+}
@@ -0,0 +1,133 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.model.ArchivedEnrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.ArchivedEnrollmentRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ✅ Hot / cold split of enrollment history. COMPLETED and CANCELLED rows enrolled more than
+ * {@code enrollment.archive.age} ago are moved from {@code enrollments} to {@code enrollments_archive}, so the hot
+ * table, its indexes and every list / count / check keep to active terms. The history stays readable here.
+ * <p>
+ * Rows move {@code batch-size} at a time, each batch one transaction (lock, INSERT ... SELECT, DELETE), so the
+ * archiver never holds locks on {@code enrollments} for long. Every node runs it; rows locked by another node's
+ * batch are skipped. Each moved row is published as an ARCHIVED event, which keeps the membership index and read
+ * cache of every node in step. An archived pair still counts as enrolled: the enroll paths check the archive too.
+ */
+@Service
+@Slf4j
+public class EnrollmentArchive {
+
+    private static final List<EnrollmentStatus> FINISHED = List.of(EnrollmentStatus.COMPLETED, EnrollmentStatus.CANCELLED);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archiveRepository;
+    private final MembershipIndex membershipIndex;
+    private final EnrollmentCounters enrollmentCounters;
+    private final EnrollmentReadCache readCache;
+    private final EnrollmentOutbox outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration age;
+    private final int batchSize;
+    private final Counter archived;
+
+    public EnrollmentArchive(EnrollmentRepository enrollmentRepository,
+                             ArchivedEnrollmentRepository archiveRepository,
+                             MembershipIndex membershipIndex,
+                             EnrollmentCounters enrollmentCounters,
+                             EnrollmentReadCache readCache,
+                             EnrollmentOutbox outbox,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${enrollment.archive.enabled:true}") boolean enabled,
+                             @Value("${enrollment.archive.age:P365D}") Duration age,
+                             @Value("${enrollment.archive.batch-size:1000}") int batchSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archiveRepository = archiveRepository;
+        this.membershipIndex = membershipIndex;
+        this.enrollmentCounters = enrollmentCounters;
+        this.readCache = readCache;
+        this.outbox = outbox;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.age = age;
+        this.batchSize = batchSize;
+        this.archived = Counter.builder("enrollment.archive.moved")
+                .description("Finished enrollments moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.archive.interval:PT1H}",
+            initialDelayString = "${enrollment.archive.interval:PT1H}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        long moved = archiveEnrolledBefore(LocalDateTime.now().minus(age));
+        if (moved > 0) {
+            log.info("🗄️ Archived {} finished enrollments older than {}", moved, age);
+        }
+    }
+
+    /**
+     * ✅ Move every finished enrollment enrolled before {@code before}; returns how many were moved
+     */
+    public long archiveEnrolledBefore(LocalDateTime before) {
+        long moved = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(tx -> archiveBatch(before));
+            moved += batch != null ? batch : 0;
+        } while (batch != null && batch == batchSize);
+        return moved;
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<EnrollmentRepository.Finished> rows =
+                enrollmentRepository.lockFinishedBefore(FINISHED, before, PageRequest.ofSize(batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(EnrollmentRepository.Finished::getId).toList();
+        archiveRepository.copyFromEnrollments(ids, LocalDateTime.now());
+        enrollmentRepository.deleteByIds(ids);
+        rows.forEach(row -> {
+            outbox.archived(row.getId(), row.getUserId(), row.getCourseId(), row.getStatus());
+            membershipIndex.unenrolled(row.getUserId(), row.getCourseId());
+            enrollmentCounters.removed(row.getUserId(), row.getCourseId(), row.getStatus());
+            readCache.changed(row.getId(), row.getUserId(), row.getCourseId());
+        });
+        archived.increment(rows.size());
+        return rows.size();
+    }
+
+    public Page<EnrollmentResponse> getUserHistory(Long userId, Pageable pageable) {
+        return archiveRepository.findByUserId(userId, pageable).map(EnrollmentArchive::toResponse);
+    }
+
+    public Page<EnrollmentResponse> getCourseHistory(Long courseId, Pageable pageable) {
+        return archiveRepository.findByCourseId(courseId, pageable).map(EnrollmentArchive::toResponse);
+    }
+
+    private static EnrollmentResponse toResponse(ArchivedEnrollment enrollment) {
+        return new EnrollmentResponse(enrollment.getId(), enrollment.getUserId(), enrollment.getCourseId(),
+                enrollment.getEnrolledAt(), enrollment.getStatus());
+    }
+}
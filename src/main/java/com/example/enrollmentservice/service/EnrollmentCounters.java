@@ -0,0 +1,120 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ✅ Per-user and per-course enrollment counts, split by status and served from memory.
+ * <p>
+ * Mutations apply their delta after the surrounding transaction commits. A periodic reconciliation
+ * recomputes everything with two GROUP BY queries, which also picks up writes made by other nodes and
+ * corrects deltas lost while a previous reconciliation was running. Until the first one finishes
+ * {@link #isReady()} is {@code false} and callers must count in the database.
+ */
+@Component
+@Slf4j
+public class EnrollmentCounters {
+
+    private static final EnrollmentStatus[] STATUSES = EnrollmentStatus.values();
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final boolean enabled;
+    private volatile Map<Long, AtomicLongArray> byUser = new ConcurrentHashMap<>();
+    private volatile Map<Long, AtomicLongArray> byCourse = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public EnrollmentCounters(EnrollmentRepository enrollmentRepository,
+                              @Value("${enrollment.counters.enabled:true}") boolean enabled) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * ✅ @param status only count this status, or every status when {@code null}
+     */
+    public long userCount(Long userId, EnrollmentStatus status) {
+        return count(byUser.get(userId), status);
+    }
+
+    public long courseCount(Long courseId, EnrollmentStatus status) {
+        return count(byCourse.get(courseId), status);
+    }
+
+    public void added(Long userId, Long courseId, EnrollmentStatus status) {
+        AfterCommit.run(() -> apply(userId, courseId, status, 1));
+    }
+
+    public void removed(Long userId, Long courseId, EnrollmentStatus status) {
+        AfterCommit.run(() -> apply(userId, courseId, status, -1));
+    }
+
+    public void statusChanged(Long userId, Long courseId, EnrollmentStatus from, EnrollmentStatus to) {
+        AfterCommit.run(() -> {
+            apply(userId, courseId, from, -1);
+            apply(userId, courseId, to, 1);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${enrollment.counters.reconcile-interval:PT10M}",
+            initialDelayString = "${enrollment.counters.reconcile-interval:PT10M}")
+    // ✅ Not read-only: those transactions may be served by a lagging replica, this must see every commit
+    @Transactional
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Long, AtomicLongArray> users = new ConcurrentHashMap<>();
+        Map<Long, AtomicLongArray> courses = new ConcurrentHashMap<>();
+        enrollmentRepository.countGroupedByUserAndStatus().forEach(row ->
+                counters(users, row.getId()).addAndGet(row.getStatus().ordinal(), row.getTotal()));
+        enrollmentRepository.countGroupedByCourseAndStatus().forEach(row ->
+                counters(courses, row.getId()).addAndGet(row.getStatus().ordinal(), row.getTotal()));
+
+        byUser = users;
+        byCourse = courses;
+        ready = true;
+        log.info("🔢 Reconciled enrollment counters for {} users and {} courses in {} ms",
+                users.size(), courses.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void apply(Long userId, Long courseId, EnrollmentStatus status, int delta) {
+        counters(byUser, userId).addAndGet(status.ordinal(), delta);
+        counters(byCourse, courseId).addAndGet(status.ordinal(), delta);
+    }
+
+    private static AtomicLongArray counters(Map<Long, AtomicLongArray> map, Long key) {
+        return map.computeIfAbsent(key, k -> new AtomicLongArray(STATUSES.length));
+    }
+
+    private static long count(AtomicLongArray counters, EnrollmentStatus status) {
+        if (counters == null) {
+            return 0;
+        }
+        if (status != null) {
+            return counters.get(status.ordinal());
+        }
+        long total = 0;
+        for (int i = 0; i < counters.length(); i++) {
+            total += counters.get(i);
+        }
+        return total;
+    }
+}
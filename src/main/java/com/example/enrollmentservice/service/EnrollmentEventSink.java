@@ -0,0 +1,14 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+
+import java.util.List;
+
+/**
+ * ✅ Destination of the events relayed from the outbox. Called inside the relay's transaction: throwing leaves the
+ * batch unpublished and it is offered again, so sinks must tolerate seeing an event more than once.
+ */
+public interface EnrollmentEventSink {
+
+    void publish(List<EnrollmentEventMessage> events);
+}
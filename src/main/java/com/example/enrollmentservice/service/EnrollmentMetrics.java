@@ -0,0 +1,143 @@
+package com.example.enrollmentservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ✅ Timers for each stage of the enrollment hot paths plus failure counters.
+ * <p>
+ * Every timer is {@code enrollment.stage} tagged with a fixed operation and stage, and is registered up front
+ * so recording never looks anything up. Failures are {@code enrollment.failures} tagged with the operation, the
+ * stage the failure started in and the HTTP status code, so the number of series stays bounded no matter the
+ * traffic; each counter is registered the first time its status occurs and reused from then on.
+ */
+@Component
+public class EnrollmentMetrics {
+
+    public enum Stage {
+        AUTHENTICATE("auth", "authenticate"),
+        USER_SERVICE_CALL("user_service", "call"),
+        ENROLL_RESOLVE_USER("enroll", "resolve_user"),
+        ENROLL_DUPLICATE_CHECK("enroll", "duplicate_check"),
+        ENROLL_WRITE("enroll", "write"),
+        ENROLL_MAP("enroll", "map"),
+        UNENROLL_RESOLVE_USER("unenroll", "resolve_user"),
+        UNENROLL_LOOKUP("unenroll", "lookup"),
+        UNENROLL_WRITE("unenroll", "write"),
+        CHECK_LOOKUP("check", "lookup"),
+        LIST_QUERY("list", "query"),
+        LIST_MAP("list", "map");
+
+        private final String operation;
+        private final String stage;
+
+        Stage(String operation, String stage) {
+            this.operation = operation;
+            this.stage = stage;
+        }
+
+        public String operation() {
+            return operation;
+        }
+    }
+
+    // ✅ Stages nest (the user service call runs inside resolve_user): tracks where this thread's failure started
+    private static final ThreadLocal<Nesting> NESTING = ThreadLocal.withInitial(Nesting::new);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final Map<FailureKey, Counter> failures = new ConcurrentHashMap<>();
+    private final Map<String, Counter> authFailures = new ConcurrentHashMap<>();
+
+    public EnrollmentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("enrollment.stage")
+                    .description("Time spent in one stage of an enrollment operation")
+                    .tag("operation", stage.operation)
+                    .tag("stage", stage.stage)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * ✅ Time a stage; a {@link ResponseStatusException} escaping it is counted once, as a failure of the outermost
+     * stage's operation tagged with the innermost stage it escaped from (a user service failure during enroll is an
+     * enroll failure that started in the user service call)
+     */
+    public <T> T stage(Stage stage, Supplier<T> work) {
+        Nesting nesting = NESTING.get();
+        nesting.depth++;
+        try {
+            return timers.get(stage).record(work);
+        } catch (ResponseStatusException e) {
+            if (nesting.failure != e) {
+                nesting.failure = e;
+                nesting.origin = stage;
+            }
+            if (nesting.depth == 1) {
+                failure(stage.operation, nesting.origin, e.getStatusCode().value());
+            }
+            throw e;
+        } finally {
+            if (--nesting.depth == 0) {
+                nesting.failure = null;
+                nesting.origin = null;
+            }
+        }
+    }
+
+    public void stage(Stage stage, Runnable work) {
+        stage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage) {
+        sample.stop(timers.get(stage));
+    }
+
+    private void failure(String operation, Stage origin, int status) {
+        failures.computeIfAbsent(new FailureKey(operation, origin, status), key -> Counter.builder("enrollment.failures")
+                        .description("Enrollment operations rejected with an HTTP error status")
+                        .tag("operation", key.operation())
+                        .tag("stage", key.origin().name().toLowerCase(Locale.ROOT))
+                        .tag("status", String.valueOf(key.status()))
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * ✅ @param reason one of a fixed set: revoked, invalid, payload
+     */
+    public void authFailure(String reason) {
+        authFailures.computeIfAbsent(reason, key -> Counter.builder("enrollment.auth.failures")
+                        .description("Requests rejected by JWT authentication")
+                        .tag("reason", key)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record FailureKey(String operation, Stage origin, int status) {
+    }
+
+    private static final class Nesting {
+        private int depth;
+        private ResponseStatusException failure;
+        private Stage origin;
+    }
+}
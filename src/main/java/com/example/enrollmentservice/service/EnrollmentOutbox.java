@@ -0,0 +1,69 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ Records enrollment changes as outbox rows in the caller's transaction: an event exists exactly when its change
+ * committed. Rows are only persisted here; they are flushed (and batched) with the rest of the transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class EnrollmentOutbox {
+
+    private final EnrollmentEventRepository eventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enrolled(Enrollment enrollment) {
+        record(EnrollmentEventType.ENROLLED, enrollment, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void unenrolled(Enrollment enrollment) {
+        record(EnrollmentEventType.UNENROLLED, enrollment, null);
+    }
+
+    /**
+     * ✅ Takes ids rather than the entity: bulk transitions update rows without loading them
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Long enrollmentId, Long userId, Long courseId,
+                              EnrollmentStatus previousStatus, EnrollmentStatus status) {
+        record(EnrollmentEventType.STATUS_CHANGED, enrollmentId, userId, courseId, status, previousStatus);
+    }
+
+    /**
+     * ✅ A finished row moved to the archive: gone from the hot table, as for other nodes' in-memory views
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void archived(Long enrollmentId, Long userId, Long courseId, EnrollmentStatus status) {
+        record(EnrollmentEventType.ARCHIVED, enrollmentId, userId, courseId, status, null);
+    }
+
+    private void record(EnrollmentEventType type, Enrollment enrollment, EnrollmentStatus previousStatus) {
+        record(type, enrollment.getId(), enrollment.getUserId(), enrollment.getCourseId(), enrollment.getStatus(),
+                previousStatus);
+    }
+
+    private void record(EnrollmentEventType type, Long enrollmentId, Long userId, Long courseId,
+                        EnrollmentStatus status, EnrollmentStatus previousStatus) {
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.setType(type);
+        event.setEnrollmentId(enrollmentId);
+        event.setUserId(userId);
+        event.setCourseId(courseId);
+        event.setStatus(status);
+        event.setPreviousStatus(previousStatus);
+        event.setOccurredAt(LocalDateTime.now());
+        eventRepository.save(event);
+    }
+}
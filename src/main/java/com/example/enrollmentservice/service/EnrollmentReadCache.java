@@ -0,0 +1,162 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.config.ReplicaRoutingDataSource;
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * ✅ In-process cache of enrollment reads: single enrollments by id, and per-user / per-course query results
+ * (list pages, cursor slices, counts). Bounded, evicted by size and expiring after {@code enrollment.read-cache.ttl}.
+ * <p>
+ * A write invalidates only its user and course, once it committed; writes on other nodes do the same here when
+ * their events arrive through {@link OutboxTail}. Query results are stored under the owner's current generation;
+ * invalidating drops the generation, so all of the owner's results become unreachable at once and age out. A load
+ * that raced with a commit lands under the old generation (or in a future already removed) and is never served.
+ * <p>
+ * For {@code primary-window} after an invalidation the owner's reloads read from the primary, even where read-only
+ * work would go to a lagging replica, so a user sees their own write and no replica-stale result is cached under
+ * the new generation. Keep it above the replica's max-lag plus its lag-check interval.
+ * Hit rates are exported as {@code cache.gets{cache=enrollment*}}.
+ */
+@Component
+@Slf4j
+public class EnrollmentReadCache implements PublishedEventListener {
+
+    private final boolean enabled;
+    private final AsyncCache<Long, Object> byId;
+    private final AsyncCache<ReadKey, Object> userReads;
+    private final AsyncCache<ReadKey, Object> courseReads;
+    private final Cache<Long, Long> userGenerations;
+    private final Cache<Long, Long> courseGenerations;
+    private final Cache<Owner, Boolean> recentlyChanged;
+    // ✅ Never reused, so a generation dropped by eviction can not bring old results back
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    public EnrollmentReadCache(MeterRegistry meterRegistry,
+                               @Value("${enrollment.read-cache.enabled:true}") boolean enabled,
+                               @Value("${enrollment.read-cache.max-size:100000}") long maxSize,
+                               @Value("${enrollment.read-cache.ttl:PT5M}") Duration ttl,
+                               @Value("${enrollment.read-cache.primary-window:PT10S}") Duration primaryWindow) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.userReads = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.courseReads = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.userGenerations = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(ttl).build();
+        this.courseGenerations = Caffeine.newBuilder().maximumSize(maxSize).expireAfterAccess(ttl).build();
+        this.recentlyChanged = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(primaryWindow).build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId.synchronous(), "enrollmentById");
+        CaffeineCacheMetrics.monitor(meterRegistry, userReads.synchronous(), "enrollmentUserReads");
+        CaffeineCacheMetrics.monitor(meterRegistry, courseReads.synchronous(), "enrollmentCourseReads");
+    }
+
+    public <T> T byId(Long id, Supplier<T> loader) {
+        return enabled ? load(byId, id, fresh(new Owner(Kind.ENROLLMENT, id), loader)) : loader.get();
+    }
+
+    /**
+     * ✅ A query result about one user; {@code query} must identify the query and its parameters (equals/hashCode)
+     */
+    public <T> T user(Long userId, Object query, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return load(userReads, new ReadKey(userId, generation(userGenerations, userId), query),
+                fresh(new Owner(Kind.USER, userId), loader));
+    }
+
+    public <T> T course(Long courseId, Object query, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return load(courseReads, new ReadKey(courseId, generation(courseGenerations, courseId), query),
+                fresh(new Owner(Kind.COURSE, courseId), loader));
+    }
+
+    /**
+     * ✅ An enrollment of this user in this course changed; forget what was cached about them once it commits
+     */
+    public void changed(Long enrollmentId, Long userId, Long courseId) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> invalidate(enrollmentId, userId, courseId));
+    }
+
+    /**
+     * ✅ Changes committed on any node, this one included
+     */
+    @Override
+    public void onPublished(List<EnrollmentEventMessage> events) {
+        if (!enabled) {
+            return;
+        }
+        events.forEach(event -> invalidate(event.enrollmentId(), event.userId(), event.courseId()));
+    }
+
+    private void invalidate(Long enrollmentId, Long userId, Long courseId) {
+        // ✅ Marked first: a reload that sees the new generation must also see the mark
+        recentlyChanged.put(new Owner(Kind.USER, userId), Boolean.TRUE);
+        recentlyChanged.put(new Owner(Kind.COURSE, courseId), Boolean.TRUE);
+        userGenerations.invalidate(userId);
+        courseGenerations.invalidate(courseId);
+        if (enrollmentId != null) {
+            recentlyChanged.put(new Owner(Kind.ENROLLMENT, enrollmentId), Boolean.TRUE);
+            byId.synchronous().invalidate(enrollmentId);
+        }
+    }
+
+    private <T> Supplier<T> fresh(Owner owner, Supplier<T> loader) {
+        return () -> recentlyChanged.getIfPresent(owner) != null ? ReplicaRoutingDataSource.onPrimary(loader) : loader.get();
+    }
+
+    private long generation(Cache<Long, Long> generations, Long owner) {
+        return generations.get(owner, id -> nextGeneration.incrementAndGet());
+    }
+
+    /**
+     * ✅ As in UserIdResolver: concurrent misses share one load, which runs outside the cache's compute
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, T> T load(AsyncCache<K, Object> cache, K key, Supplier<T> loader) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> result = cache.get(key, (k, executor) -> created);
+        if (result == created) {
+            try {
+                created.complete(loader.get());
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return (T) result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record ReadKey(long owner, long generation, Object query) {
+    }
+
+    private enum Kind { ENROLLMENT, USER, COURSE }
+
+    private record Owner(Kind kind, long id) {
+    }
+}
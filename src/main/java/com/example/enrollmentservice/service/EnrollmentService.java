@@ -1,25 +1,40 @@
 package com.example.enrollmentservice.service;
 
 import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.dto.BulkEnrollmentRequest;
+import com.example.enrollmentservice.dto.BulkEnrollmentResult;
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.EnrollmentCheckRequest;
 import com.example.enrollmentservice.dto.EnrollmentRequest;
 import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.dto.RosterEntry;
 import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.ArchivedEnrollmentRepository;
 import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentMetrics.Stage;
+import com.example.enrollmentservice.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,20 +42,45 @@ import java.util.Optional;
 public class EnrollmentService {
 
     private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archiveRepository;
+    private final UserIdResolver userIdResolver;
+    private final MembershipIndex membershipIndex;
+    private final EnrollmentCounters enrollmentCounters;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentMetrics metrics;
+    private final EnrollmentOutbox outbox;
+    private final EnrollmentWriteBatcher writeBatcher;
+    private final EnrollmentReadCache readCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
-    @Autowired
-    private RestTemplate restTemplate;
+    @Value("${enrollment.check.max-batch-size:1000}")
+    private int maxBatchSize = 1000;
+
+    @Value("${enrollment.page.max-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${enrollment.roster.max-ids-size:5000}")
+    private int maxRosterIdsSize = 5000;
+
+    @Value("${enrollment.bulk.max-size:20000}")
+    private int maxBulkSize = 20000;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int bulkChunkSize = 100;
 
     /**
      * ✅ Enroll a user (user ID extracted from JWT)
      */
     public EnrollmentResponse enrollUser(EnrollmentRequest request, HttpServletRequest httpRequest) {
-        Long userId = fetchUserIdFromUserService(httpRequest);
+        Long userId = metrics.stage(Stage.ENROLL_RESOLVE_USER, () -> userIdResolver.resolve(httpRequest));
 
-        Optional<Enrollment> existing = enrollmentRepository.findByUserIdAndCourseId(userId, request.courseId());
-        if (existing.isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "User is already enrolled in this course.");
-        }
+        // ✅ Free early answer from memory; the unique index is what actually guarantees no duplicates
+        metrics.stage(Stage.ENROLL_DUPLICATE_CHECK, () -> {
+            if (membershipIndex.isReady() && membershipIndex.contains(userId, request.courseId())) {
+                throw alreadyEnrolled();
+            }
+        });
 
         Enrollment enrollment = new Enrollment();
         enrollment.setUserId(userId);
@@ -48,25 +88,173 @@ public class EnrollmentService {
         enrollment.setEnrolledAt(LocalDateTime.now());
         enrollment.setStatus(EnrollmentStatus.ENROLLED);
 
-        Enrollment saved = enrollmentRepository.save(enrollment);
+        // ✅ In write-coalescing mode the row is committed with others; null means it has to be written on its own
+        Enrollment batched = writeBatcher.isEnabled()
+                ? metrics.stage(Stage.ENROLL_WRITE, () -> writeBatcher.enroll(enrollment))
+                : null;
+        if (batched != null) {
+            log.info("✅ User {} enrolled in course {}", userId, request.courseId());
+            return metrics.stage(Stage.ENROLL_MAP, () -> mapToResponse(batched));
+        }
+
+        // ✅ Only the insert and the seat update run in the transaction, not the user id lookup
+        Enrollment saved = metrics.stage(Stage.ENROLL_WRITE, () -> transactionTemplate.execute(tx -> {
+            Enrollment inserted;
+            try {
+                inserted = enrollmentRepository.saveAndFlush(enrollment);
+            } catch (DataIntegrityViolationException e) {
+                if (isUserCourseConstraint(e)) {
+                    throw alreadyEnrolled();
+                }
+                throw e;
+            }
+            // ✅ After the insert: an archiver moving this pair's row either committed before it or made it wait
+            if (archiveRepository.existsByUserIdAndCourseId(userId, request.courseId())) {
+                throw alreadyEnrolled();
+            }
+            outbox.enrolled(inserted);
+            // ✅ Last statement before commit, so the course's capacity row is locked as briefly as possible
+            seatAllocator.takeSeats(request.courseId(), 1);
+            membershipIndex.enrolled(userId, request.courseId());
+            enrollmentCounters.added(userId, request.courseId(), inserted.getStatus());
+            readCache.changed(inserted.getId(), userId, request.courseId());
+            return inserted;
+        }));
         log.info("✅ User {} enrolled in course {}", userId, request.courseId());
-        return mapToResponse(saved);
+        return metrics.stage(Stage.ENROLL_MAP, () -> mapToResponse(saved));
+    }
+
+    private static ResponseStatusException alreadyEnrolled() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "User is already enrolled in this course.");
+    }
+
+    private static ResponseStatusException changedMeanwhile() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Enrollments of this course changed meanwhile, retry.");
+    }
+
+    private static boolean isUserCourseConstraint(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(Enrollment.USER_COURSE_CONSTRAINT);
+            }
+        }
+        return false;
     }
 
     /**
-     * ✅ Unenroll a user (user ID extracted from JWT)
+     * ✅ Admin: enroll a whole cohort into one course.
+     * Duplicates are found with one IN query per chunk and new rows are flushed as JDBC batches.
+     * Seats are taken per chunk; if the course runs out, the whole operation rolls back with 409.
      */
     @Transactional
+    public List<BulkEnrollmentResult> bulkEnroll(BulkEnrollmentRequest request) {
+        if (request.courseId() == null || request.userIds() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "courseId and userIds are required.");
+        }
+        if (request.userIds().size() > maxBulkSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBulkSize + " users per bulk enrollment.");
+        }
+        if (request.userIds().stream().anyMatch(Objects::isNull)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must not contain null.");
+        }
+        Long courseId = request.courseId();
+
+        List<BulkEnrollmentResult> results = new ArrayList<>(request.userIds().size());
+        Map<Long, Enrollment> created = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < request.userIds().size(); from += bulkChunkSize) {
+            List<Long> chunk = request.userIds().subList(from, Math.min(from + bulkChunkSize, request.userIds().size()));
+            Set<Long> alreadyEnrolled = new HashSet<>(enrollmentRepository.findEnrolledUserIds(courseId, chunk));
+            alreadyEnrolled.addAll(archiveRepository.findArchivedUserIds(courseId, chunk));
+
+            List<Enrollment> toInsert = new ArrayList<>(chunk.size());
+            for (Long userId : chunk) {
+                if (!seen.add(userId)) {
+                    results.add(new BulkEnrollmentResult(userId, BulkEnrollmentResult.Outcome.DUPLICATE_IN_REQUEST, null));
+                } else if (alreadyEnrolled.contains(userId)) {
+                    results.add(new BulkEnrollmentResult(userId, BulkEnrollmentResult.Outcome.ALREADY_ENROLLED, null));
+                } else {
+                    Enrollment enrollment = new Enrollment();
+                    enrollment.setUserId(userId);
+                    enrollment.setCourseId(courseId);
+                    enrollment.setEnrolledAt(now);
+                    enrollment.setStatus(EnrollmentStatus.ENROLLED);
+                    toInsert.add(enrollment);
+                    created.put(userId, enrollment);
+                    results.add(null);
+                }
+            }
+
+            enrollmentRepository.saveAll(toInsert);
+            toInsert.forEach(outbox::enrolled);
+            // ✅ Push the chunk out as one batch and keep the persistence context small
+            try {
+                entityManager.flush();
+            } catch (PersistenceException | DataIntegrityViolationException e) {
+                // ✅ A single enrollment committed one of these pairs after the duplicate check; same answer as below
+                if (isUserCourseConstraint(e)) {
+                    throw changedMeanwhile();
+                }
+                throw e;
+            }
+            if (!toInsert.isEmpty() && !archiveRepository.findArchivedUserIds(courseId,
+                    toInsert.stream().map(Enrollment::getUserId).toList()).isEmpty()) {
+                // ✅ Archived between the check above and the insert; rare enough to just ask for a retry
+                throw changedMeanwhile();
+            }
+            seatAllocator.takeSeats(courseId, toInsert.size());
+            entityManager.clear();
+            toInsert.forEach(e -> {
+                membershipIndex.enrolled(e.getUserId(), courseId);
+                enrollmentCounters.added(e.getUserId(), courseId, e.getStatus());
+                readCache.changed(e.getId(), e.getUserId(), courseId);
+            });
+        }
+
+        // ✅ Fill in the ENROLLED rows now that every id is assigned
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                Long userId = request.userIds().get(i);
+                results.set(i, new BulkEnrollmentResult(userId, BulkEnrollmentResult.Outcome.ENROLLED,
+                        created.get(userId).getId()));
+            }
+        }
+        log.info("✅ Bulk enrolled {} of {} users in course {}", created.size(), request.userIds().size(), courseId);
+        return results;
+    }
+
+    /**
+     * ✅ Unenroll a user (user ID extracted from JWT)
+     */
     public void unenrollUser(EnrollmentRequest request, HttpServletRequest httpRequest) {
-        Long userId = fetchUserIdFromUserService(httpRequest);
+        Long userId = metrics.stage(Stage.UNENROLL_RESOLVE_USER, () -> userIdResolver.resolve(httpRequest));
 
-        Enrollment enrollment = enrollmentRepository.findByUserIdAndCourseId(userId, request.courseId())
-                .orElseThrow(() -> {
-                    log.warn("❌ Tried to unenroll non-existing enrollment: user {}, course {}", userId, request.courseId());
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found.");
-                });
+        // ✅ As in enrollUser, no connection is held while the user id is looked up
+        transactionTemplate.executeWithoutResult(tx -> {
+            Enrollment enrollment = metrics.stage(Stage.UNENROLL_LOOKUP, () ->
+                    enrollmentRepository.findByUserIdAndCourseId(userId, request.courseId())
+                            .orElseThrow(() -> {
+                                log.warn("❌ Tried to unenroll non-existing enrollment: user {}, course {}", userId, request.courseId());
+                                return new ResponseStatusException(HttpStatus.NOT_FOUND, "Enrollment not found.");
+                            }));
 
-        enrollmentRepository.delete(enrollment);
+            metrics.stage(Stage.UNENROLL_WRITE, () -> {
+                enrollmentRepository.delete(enrollment);
+                outbox.unenrolled(enrollment);
+                if (enrollment.getStatus() == EnrollmentStatus.ENROLLED) {
+                    seatAllocator.releaseSeats(request.courseId(), 1);
+                }
+                // ✅ Flush so the timer covers the DELETE itself rather than leaving it to the commit
+                entityManager.flush();
+            });
+            membershipIndex.unenrolled(userId, request.courseId());
+            enrollmentCounters.removed(userId, request.courseId(), enrollment.getStatus());
+            readCache.changed(enrollment.getId(), userId, request.courseId());
+        });
         log.info("🗑️ User {} unenrolled from course {}", userId, request.courseId());
     }
 
@@ -74,22 +262,138 @@ public class EnrollmentService {
      * ✅ Get all enrollments of a user
      */
     public Page<EnrollmentResponse> getUserEnrollments(Long userId, Pageable pageable) {
-        return enrollmentRepository.findByUserId(userId, pageable)
-                .map(this::mapToResponse);
+        return readCache.user(userId, pageable, () -> {
+            Page<Enrollment> page = metrics.stage(Stage.LIST_QUERY, () -> enrollmentRepository.findByUserId(userId, pageable));
+            return metrics.stage(Stage.LIST_MAP, () -> page.map(this::mapToResponse));
+        });
+    }
+
+    /**
+     * ✅ Get a user's enrollments by keyset: ordered by (enrolledAt, id), no offset scan and no count query
+     */
+    public CursorPage<EnrollmentResponse> getUserEnrollmentsAfter(Long userId, String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxPageSize + ".");
+        }
+        KeysetCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+        return readCache.user(userId, new CursorQuery(after, size), () -> loadSliceAfter(userId, after, size));
+    }
+
+    private CursorPage<EnrollmentResponse> loadSliceAfter(Long userId, KeysetCursor after, int size) {
+        // ✅ Fetch one extra row to learn whether another slice follows
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        List<Enrollment> rows = metrics.stage(Stage.LIST_QUERY, () -> after == null
+                ? enrollmentRepository.findByUserIdOrderByEnrolledAtAscIdAsc(userId, limit)
+                : enrollmentRepository.findByUserIdAfter(userId, after.enrolledAt(), after.id(), limit));
+
+        boolean hasNext = rows.size() > size;
+        List<Enrollment> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Enrollment last = slice.get(slice.size() - 1);
+            nextCursor = new KeysetCursor(last.getEnrolledAt(), last.getId()).encode();
+        }
+        List<EnrollmentResponse> content = metrics.stage(Stage.LIST_MAP,
+                () -> slice.stream().map(this::mapToResponse).toList());
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /**
+     * ✅ Count a user's enrollments, optionally in one status
+     */
+    public long countUserEnrollments(Long userId, EnrollmentStatus status) {
+        if (enrollmentCounters.isReady()) {
+            return enrollmentCounters.userCount(userId, status);
+        }
+        return readCache.user(userId, new CountQuery(status), () -> status == null
+                ? enrollmentRepository.countByUserId(userId)
+                : enrollmentRepository.countByUserIdAndStatus(userId, status));
+    }
+
+    /**
+     * ✅ Count a course's enrollments (headcount), optionally in one status
+     */
+    public long countCourseEnrollments(Long courseId, EnrollmentStatus status) {
+        if (enrollmentCounters.isReady()) {
+            return enrollmentCounters.courseCount(courseId, status);
+        }
+        return readCache.course(courseId, new CountQuery(status), () -> status == null
+                ? enrollmentRepository.countByCourseId(courseId)
+                : enrollmentRepository.countByCourseIdAndStatus(courseId, status));
     }
 
     /**
      * ✅ Check if a user is enrolled in a course
      */
     public boolean isUserEnrolled(Long userId, Long courseId) {
-        boolean enrolled = enrollmentRepository.findByUserIdAndCourseId(userId, courseId).isPresent();
-        log.info("🔍 Enrollment check - user: {}, course: {} → enrolled: {}", userId, courseId, enrolled);
+        boolean enrolled = metrics.stage(Stage.CHECK_LOOKUP, () -> membershipIndex.isReady()
+                ? membershipIndex.contains(userId, courseId)
+                : enrollmentRepository.findByUserIdAndCourseId(userId, courseId).isPresent());
+        log.debug("🔍 Enrollment check - user: {}, course: {} → enrolled: {}", userId, courseId, enrolled);
         return enrolled;
     }
 
+    /**
+     * ✅ Check one user against many courses with a single index probe or query
+     */
+    public Map<Long, Boolean> areUserEnrolled(Long userId, Collection<Long> courseIds) {
+        requireBatchSize(courseIds.size());
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        if (membershipIndex.isReady()) {
+            courseIds.forEach(courseId -> result.put(courseId, membershipIndex.contains(userId, courseId)));
+            return result;
+        }
+        Set<Long> enrolled = courseIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(enrollmentRepository.findEnrolledCourseIds(userId, courseIds));
+        courseIds.forEach(courseId -> result.put(courseId, enrolled.contains(courseId)));
+        return result;
+    }
+
+    /**
+     * ✅ Check many (user, course) pairs, answered as userId → courseId → enrolled
+     */
+    public Map<Long, Map<Long, Boolean>> areUsersEnrolled(List<EnrollmentCheckRequest> checks) {
+        requireBatchSize(checks.size());
+        Map<Long, Map<Long, Boolean>> result = new LinkedHashMap<>();
+        if (membershipIndex.isReady()) {
+            checks.forEach(check -> result.computeIfAbsent(check.userId(), id -> new LinkedHashMap<>())
+                    .put(check.courseId(), membershipIndex.contains(check.userId(), check.courseId())));
+            return result;
+        }
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        checks.forEach(check -> {
+            userIds.add(check.userId());
+            courseIds.add(check.courseId());
+        });
+        // ✅ One query over the cross product, then keep only the pairs that were asked for
+        Map<Long, Set<Long>> enrolled = new HashMap<>();
+        if (!checks.isEmpty()) {
+            enrollmentRepository.findMemberships(userIds, courseIds).forEach(m ->
+                    enrolled.computeIfAbsent(m.getUserId(), id -> new HashSet<>()).add(m.getCourseId()));
+        }
+        checks.forEach(check -> result.computeIfAbsent(check.userId(), id -> new LinkedHashMap<>())
+                .put(check.courseId(), enrolled.getOrDefault(check.userId(), Set.of()).contains(check.courseId())));
+        return result;
+    }
+
+    private void requireBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " enrollment checks per request.");
+        }
+    }
+
     /**
      * ✅ Admin: get all enrollments
      */
+    @Transactional(readOnly = true)
     public List<EnrollmentResponse> getAllEnrollments() {
         List<Enrollment> enrollments = enrollmentRepository.findAll();
         return enrollments.stream()
@@ -98,35 +402,64 @@ public class EnrollmentService {
     }
 
     /**
-     * ✅ Call UserService to extract userId from token
+     * ✅ Admin: push every enrollment to the sink through a server-side cursor, in constant memory
      */
-    private Long fetchUserIdFromUserService(HttpServletRequest request) {
-        String url = "http://localhost:8080/userservice/user/email";
-
-        // this endpoint should exist and extract user ID from token
-
-        String token = request.getHeader("Authorization");
-        if (token == null || token.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization token is missing.");
+    @Transactional(readOnly = true)
+    public void streamAllEnrollments(Consumer<EnrollmentResponse> sink) {
+        try (Stream<EnrollmentResponse> all = enrollmentRepository.streamAllAsResponses()) {
+            all.forEach(sink);
         }
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", token);
+    /**
+     * ✅ One slice of a course's roster ordered by userId; the cursor is the last userId of the previous slice
+     */
+    public CursorPage<RosterEntry> getCourseRoster(Long courseId, String cursor, int size) {
+        long after = rosterCursor(cursor, size, maxPageSize);
+        return readCache.course(courseId, new RosterQuery(after, size, false), () -> rosterSlice(
+                enrollmentRepository.findRoster(courseId, after, PageRequest.ofSize(size + 1)), size, RosterEntry::userId));
+    }
 
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
+    /**
+     * ✅ Compact roster: only user ids, read from the (course_id, user_id) index, in larger slices
+     */
+    public CursorPage<Long> getCourseRosterUserIds(Long courseId, String cursor, int size) {
+        long after = rosterCursor(cursor, size, maxRosterIdsSize);
+        return readCache.course(courseId, new RosterQuery(after, size, true), () -> rosterSlice(
+                enrollmentRepository.findRosterUserIds(courseId, after, PageRequest.ofSize(size + 1)), size, id -> id));
+    }
 
-        ResponseEntity<Long> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                entity,
-                Long.class
-        );
+    /**
+     * ✅ Push a course's whole roster to the sink through a server-side cursor, in constant memory
+     */
+    @Transactional(readOnly = true)
+    public void streamCourseRoster(Long courseId, Consumer<RosterEntry> sink) {
+        try (Stream<RosterEntry> roster = enrollmentRepository.streamRoster(courseId)) {
+            roster.forEach(sink);
+        }
+    }
 
-        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Failed to extract user ID from token.");
+    private static long rosterCursor(String cursor, int size, int maxSize) {
+        if (size < 1 || size > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxSize + ".");
         }
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+    }
 
-        return response.getBody();
+    // ✅ Rows hold one extra element that only tells whether another slice follows
+    private static <T> CursorPage<T> rosterSlice(List<T> rows, int size, Function<T, Long> userId) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> slice = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(slice), String.valueOf(userId.apply(slice.get(size - 1))));
     }
 
     /**
@@ -143,14 +476,26 @@ public class EnrollmentService {
     }
 
     public EnrollmentResponse getEnrollmentById(Long id) {
-        Enrollment enrollment = enrollmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Enrollment not found"));
-
-        return EnrollmentResponse.builder()
-                .id(enrollment.getId())
-                .userId(enrollment.getUserId())
-                .courseId(enrollment.getCourseId())
-                .build();
+        return readCache.byId(id, () -> {
+            Enrollment enrollment = enrollmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Enrollment not found"));
+
+            return EnrollmentResponse.builder()
+                    .id(enrollment.getId())
+                    .userId(enrollment.getUserId())
+                    .courseId(enrollment.getCourseId())
+                    .build();
+        });
+    }
+
+    /** Cache keys of the per-user / per-course query results */
+    private record CursorQuery(KeysetCursor after, int size) {
+    }
+
+    private record CountQuery(EnrollmentStatus status) {
+    }
+
+    private record RosterQuery(long afterUserId, int size, boolean idsOnly) {
     }
 
 }
@@ -0,0 +1,330 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.repository.ArchivedEnrollmentRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ Opt-in write coalescing for registration storms ({@code enrollment.write-coalescing.enabled}).
+ * <p>
+ * Accepted enrollments are queued on one of {@code shards} queues (by course) and each shard's flusher commits
+ * whatever has piled up, at most {@code batch-size} rows after waiting at most {@code max-delay}, as one multi-row
+ * transaction. Callers block until their batch committed, so a 200 still means the row is durable.
+ * Duplicates are rejected against the in-flight queue and, per batch, with one IN query against the database.
+ * Whenever a batch cannot be committed as a whole (a full course, a unique-key race, any error) its callers are
+ * answered {@code null} and write one by one through the regular path, which has the exact per-row semantics.
+ * A caller whose row is still queued after {@code max-wait} takes it back and uses the regular path. Once a flusher
+ * has taken the row the caller waits for that batch instead: it may still commit the row, and a direct insert would
+ * then hit the unique index and answer 409 for an enrollment that succeeded. The batch transaction is bounded by the
+ * database's own timeouts, and a direct insert would have waited on its uncommitted row just the same.
+ */
+@Component
+@Slf4j
+public class EnrollmentWriteBatcher {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archiveRepository;
+    private final SeatAllocator seatAllocator;
+    private final MembershipIndex membershipIndex;
+    private final EnrollmentCounters enrollmentCounters;
+    private final EnrollmentOutbox outbox;
+    private final EnrollmentReadCache readCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long maxWaitNanos;
+    private final Set<Key> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Shard> shards = new ArrayList<>();
+    private final DistributionSummary batchSizes;
+    private final Counter fallbacks;
+    private volatile boolean running = true;
+
+    public EnrollmentWriteBatcher(EnrollmentRepository enrollmentRepository,
+                                  ArchivedEnrollmentRepository archiveRepository,
+                                  SeatAllocator seatAllocator,
+                                  MembershipIndex membershipIndex,
+                                  EnrollmentCounters enrollmentCounters,
+                                  EnrollmentOutbox outbox,
+                                  EnrollmentReadCache readCache,
+                                  EntityManager entityManager,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${enrollment.write-coalescing.enabled:false}") boolean enabled,
+                                  @Value("${enrollment.write-coalescing.shards:4}") int shardCount,
+                                  @Value("${enrollment.write-coalescing.batch-size:100}") int batchSize,
+                                  @Value("${enrollment.write-coalescing.max-delay:PT0.002S}") Duration maxDelay,
+                                  @Value("${enrollment.write-coalescing.max-wait:PT2S}") Duration maxWait) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archiveRepository = archiveRepository;
+        this.seatAllocator = seatAllocator;
+        this.membershipIndex = membershipIndex;
+        this.enrollmentCounters = enrollmentCounters;
+        this.outbox = outbox;
+        this.readCache = readCache;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.batchSizes = DistributionSummary.builder("enrollment.write.batch.size")
+                .description("Enrollments committed per coalesced batch")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("enrollment.write.batch.fallbacks")
+                .description("Coalesced enrollments handed back to be written one by one")
+                .register(meterRegistry);
+        if (enabled) {
+            for (int i = 0; i < shardCount; i++) {
+                Shard shard = new Shard();
+                Thread flusher = new Thread(shard, "enrollment-batch-" + i);
+                flusher.setDaemon(true);
+                shard.flusher = flusher;
+                shards.add(shard);
+                flusher.start();
+            }
+            log.info("🧺 Write coalescing on: {} shards, batches of up to {} within {}", shardCount, batchSize, maxDelay);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * ✅ Queue a new ENROLLED row and wait for its batch to commit.
+     * Returns the saved enrollment, or {@code null} when the caller has to write it itself.
+     */
+    public Enrollment enroll(Enrollment enrollment) {
+        Key key = new Key(enrollment.getUserId(), enrollment.getCourseId());
+        if (!inFlight.add(key)) {
+            throw alreadyEnrolled();
+        }
+        // ✅ The flusher works on its own copy, so a batch still running can never touch the caller's entity
+        Pending pending = new Pending(key, copyOf(enrollment), new CompletableFuture<>(), new AtomicBoolean());
+        BlockingQueue<Pending> queue = shards.get(Math.floorMod(key.courseId().hashCode(), shards.size())).queue;
+        queue.add(pending);
+        // ✅ Shutting down: the flusher may already be gone, so take it back unless it was picked up
+        if (!running && pending.claim()) {
+            queue.remove(pending);
+            complete(pending, null);
+        }
+        try {
+            return pending.result().get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (pending.claim()) {
+                log.warn("⏱️ Coalesced enrollment of user {} in course {} not picked up within {} ms, writing it directly",
+                        key.userId(), key.courseId(), maxWaitNanos / 1_000_000);
+                return takeBack(queue, pending);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.claim()) {
+                return takeBack(queue, pending);
+            }
+        } catch (ExecutionException e) {
+            throw failureOf(e);
+        }
+        // ✅ A flusher has the row: only its batch knows whether it is committed
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw failureOf(e);
+        }
+    }
+
+    private Enrollment takeBack(BlockingQueue<Pending> queue, Pending pending) {
+        queue.remove(pending);
+        complete(pending, null);
+        fallbacks.increment();
+        return null;
+    }
+
+    private static RuntimeException failureOf(Exception e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private static Enrollment copyOf(Enrollment enrollment) {
+        Enrollment copy = new Enrollment();
+        copy.setUserId(enrollment.getUserId());
+        copy.setCourseId(enrollment.getCourseId());
+        copy.setEnrolledAt(enrollment.getEnrolledAt());
+        copy.setStatus(enrollment.getStatus());
+        return copy;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        shards.forEach(shard -> shard.flusher.interrupt());
+    }
+
+    private final class Shard implements Runnable {
+
+        private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+        private Thread flusher;
+
+        @Override
+        public void run() {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                    // ✅ Whatever queued up during the previous commit goes in at once; only then wait (briefly) for more
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (batch.size() < batchSize) {
+                        Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                // ✅ Rows whose caller stopped waiting before they were taken are written by that caller
+                batch.removeIf(pending -> !pending.claim());
+                try {
+                    flush(batch);
+                } catch (Throwable e) {
+                    // ✅ Even an Error must neither kill the flusher nor leave its callers waiting
+                    log.error("❌ Coalesced batch of {} failed unexpectedly, writing one by one", batch.size(), e);
+                    batch.forEach(pending -> complete(pending, null));
+                }
+                batch.clear();
+            }
+            // ✅ Anything still queued at shutdown is handed back to its caller
+            queue.drainTo(batch);
+            batch.forEach(pending -> complete(pending, null));
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Outcome outcome = new Outcome();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> write(batch, outcome));
+        } catch (RuntimeException e) {
+            log.debug("↩️ Coalesced batch of {} failed, writing one by one: {}", batch.size(), e.getMessage());
+            fallbacks.increment(batch.size());
+            batch.forEach(pending -> complete(pending, null));
+            return;
+        }
+        batchSizes.record(outcome.written.size());
+        fallbacks.increment(outcome.noSeats.size());
+        outcome.written.forEach(pending -> complete(pending, pending.enrollment()));
+        outcome.noSeats.forEach(pending -> complete(pending, null));
+        outcome.duplicates.forEach(pending -> {
+            inFlight.remove(pending.key());
+            pending.result().completeExceptionally(alreadyEnrolled());
+        });
+    }
+
+    private void write(List<Pending> batch, Outcome outcome) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        batch.forEach(pending -> {
+            userIds.add(pending.key().userId());
+            courseIds.add(pending.key().courseId());
+        });
+        Set<Key> existing = new HashSet<>();
+        enrollmentRepository.findMemberships(userIds, courseIds)
+                .forEach(m -> existing.add(new Key(m.getUserId(), m.getCourseId())));
+
+        // ✅ Seats first, course by course in id order, so two batches never lock capacity rows in opposite orders
+        Map<Long, List<Pending>> byCourse = new TreeMap<>();
+        for (Pending pending : batch) {
+            if (existing.contains(pending.key())) {
+                outcome.duplicates.add(pending);
+            } else {
+                byCourse.computeIfAbsent(pending.key().courseId(), id -> new ArrayList<>()).add(pending);
+            }
+        }
+        byCourse.forEach((courseId, group) -> {
+            if (seatAllocator.tryTakeSeats(courseId, group.size())) {
+                outcome.written.addAll(group);
+            } else {
+                // ✅ Not enough seats for all of them: one by one decides exactly who gets the last ones
+                outcome.noSeats.addAll(group);
+            }
+        });
+
+        enrollmentRepository.saveAll(outcome.written.stream().map(Pending::enrollment).toList());
+        outcome.written.forEach(pending -> outbox.enrolled(pending.enrollment()));
+        entityManager.flush();
+        // ✅ Archived pairs still count as enrolled; the per-request path tells those callers apart
+        Set<Key> written = new HashSet<>();
+        outcome.written.forEach(pending -> written.add(pending.key()));
+        if (!written.isEmpty() && archiveRepository.findArchivedMemberships(userIds, courseIds).stream()
+                .anyMatch(m -> written.contains(new Key(m.getUserId(), m.getCourseId())))) {
+            throw new IllegalStateException("Batch contains archived enrollments");
+        }
+        outcome.written.forEach(pending -> {
+            membershipIndex.enrolled(pending.key().userId(), pending.key().courseId());
+            enrollmentCounters.added(pending.key().userId(), pending.key().courseId(), pending.enrollment().getStatus());
+            readCache.changed(pending.enrollment().getId(), pending.key().userId(), pending.key().courseId());
+        });
+    }
+
+    private void complete(Pending pending, Enrollment saved) {
+        // ✅ Done already when its caller took it back, or when a failure comes after the batch was answered
+        if (!pending.result().isDone()) {
+            inFlight.remove(pending.key());
+            pending.result().complete(saved);
+        }
+    }
+
+    private static ResponseStatusException alreadyEnrolled() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "User is already enrolled in this course.");
+    }
+
+    private record Key(Long userId, Long courseId) {
+    }
+
+    /**
+     * ✅ {@code claimed} goes to whoever gets it first: the flusher writing the row or its caller taking it back
+     */
+    private record Pending(Key key, Enrollment enrollment, CompletableFuture<Enrollment> result, AtomicBoolean claimed) {
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private static final class Outcome {
+        private final List<Pending> written = new ArrayList<>();
+        private final List<Pending> noSeats = new ArrayList<>();
+        private final List<Pending> duplicates = new ArrayList<>();
+    }
+}
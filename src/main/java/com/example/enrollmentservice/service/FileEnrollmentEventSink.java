@@ -0,0 +1,66 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * ✅ Appends relayed events to a local NDJSON file, one line per event; disabled while no file is configured.
+ * Each batch is forced to disk before the relay marks it published.
+ */
+@Component
+@Slf4j
+public class FileEnrollmentEventSink implements EnrollmentEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    public FileEnrollmentEventSink(ObjectMapper objectMapper,
+                                   @Value("${enrollment.outbox.file:}") String file) {
+        this.objectMapper = objectMapper;
+        this.file = file.isBlank() ? null : Path.of(file);
+        if (this.file != null) {
+            log.info("📝 Appending enrollment events to {}", this.file.toAbsolutePath());
+        }
+    }
+
+    @Override
+    public void publish(List<EnrollmentEventMessage> events) {
+        if (file == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 192);
+            for (EnrollmentEventMessage event : events) {
+                objectMapper.writeValue(lines, event);
+                lines.write('\n');
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append enrollment events to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * ✅ Remembers the outcome of requests sent with an {@code Idempotency-Key} header, per caller and endpoint.
+ * <p>
+ * A retry with the same key gets the original response (or 4xx error) from memory, without touching the database
+ * or the user service; a duplicate arriving while the first is still running waits for it instead of running too.
+ * 5xx outcomes are not kept, so a retry after a transient failure runs again. Entries are bounded in number and
+ * expire after {@code enrollment.idempotency.ttl}; they are local to this instance.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final AsyncCache<String, Outcome> outcomes;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${enrollment.idempotency.max-size:50000}") long maxSize,
+                            @Value("${enrollment.idempotency.ttl:PT1H}") Duration ttl) {
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes.synchronous(), "idempotencyCache");
+    }
+
+    /**
+     * ✅ Run the action once per key; {@code fingerprint} identifies the request so a reused key with another
+     * body is rejected with 422 rather than answered with someone else's result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, HttpServletRequest request, Object fingerprint,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+
+        // ✅ Same pattern as UserIdResolver: the action runs outside the cache's compute, duplicates join its future
+        CompletableFuture<Outcome> created = new CompletableFuture<>();
+        CompletableFuture<Outcome> result = outcomes.get(scope(key, request), (k, executor) -> created);
+        if (result == created) {
+            return (ResponseEntity<T>) run(created, fingerprint, action).replay(false);
+        }
+
+        Outcome outcome = await(result);
+        if (!Objects.equals(outcome.fingerprint(), fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request.");
+        }
+        log.debug("🔁 Replaying {} {} for {} {}", request.getMethod(), request.getRequestURI(), HEADER, key);
+        return (ResponseEntity<T>) outcome.replay(true);
+    }
+
+    /**
+     * ✅ 4xx answers are kept as the outcome; anything else fails the future, which drops it from the cache
+     */
+    private static <T> Outcome run(CompletableFuture<Outcome> future, Object fingerprint,
+                                   Supplier<ResponseEntity<T>> action) {
+        Outcome outcome;
+        try {
+            outcome = new Outcome(fingerprint, action.get(), null);
+        } catch (ResponseStatusException e) {
+            if (!e.getStatusCode().is4xxClientError()) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+            outcome = new Outcome(fingerprint, null, e);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        future.complete(outcome);
+        return outcome;
+    }
+
+    private static Outcome await(CompletableFuture<Outcome> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String scope(String key, HttpServletRequest request) {
+        Claims claims = (Claims) request.getAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE);
+        String caller = claims != null && claims.getSubject() != null
+                ? claims.getSubject()
+                : String.valueOf(request.getHeader("Authorization"));
+        return request.getMethod() + ' ' + request.getRequestURI() + ' ' + caller + ' ' + key;
+    }
+
+    private record Outcome(Object fingerprint, ResponseEntity<?> response, ResponseStatusException error) {
+
+        ResponseEntity<?> replay(boolean replayed) {
+            if (error != null) {
+                throw error;
+            }
+            if (!replayed) {
+                return response;
+            }
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(response.getBody());
+        }
+    }
+}
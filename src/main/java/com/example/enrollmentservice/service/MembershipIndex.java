@@ -0,0 +1,164 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.util.AfterCommit;
+import com.example.enrollmentservice.util.LongPairSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * ✅ In-memory set of (userId, courseId) enrollments answering membership checks without the database.
+ * <p>
+ * Built from the database once the application is ready and rebuilt every {@code rebuild-interval}. The enroll /
+ * unenroll paths of this node apply their change after the surrounding transaction commits; changes made on other
+ * nodes (or by transitions and archiving) arrive as published events through {@link OutboxTail}, and their pairs are
+ * re-read from the primary, so late or repeated events cannot undo a newer state. A rebuild fills a new set off to
+ * the side, replays the changes applied meanwhile onto it and then swaps it in. Until the first build finishes
+ * {@link #isReady()} is {@code false} and callers must fall back to the repository.
+ */
+@Component
+@Slf4j
+public class MembershipIndex implements PublishedEventListener {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final boolean enabled;
+    private final int segments;
+    // ✅ Changes take the read lock (they only exclude the swap), the swap takes the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile LongPairSet memberships;
+    private volatile Queue<Change> changesDuringRebuild;
+    private volatile boolean ready;
+
+    public MembershipIndex(EnrollmentRepository enrollmentRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${enrollment.membership-index.enabled:true}") boolean enabled,
+                           @Value("${enrollment.membership-index.segments:64}") int segments) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.enabled = enabled;
+        this.segments = segments;
+        this.memberships = new LongPairSet(segments);
+        Gauge.builder("enrollment.membership.index.size", this, index -> index.memberships.size())
+                .description("Enrollments held in the membership index")
+                .register(meterRegistry);
+        Gauge.builder("enrollment.membership.index.memory", this, index -> index.memberships.memoryBytes())
+                .baseUnit("bytes")
+                .description("Heap used by the membership index tables")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(Long userId, Long courseId) {
+        return memberships.contains(userId, courseId);
+    }
+
+    /**
+     * ✅ Load every (userId, courseId) pair into a new set, streaming so the entities are never materialized
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${enrollment.membership-index.rebuild-interval:PT10M}",
+            initialDelayString = "${enrollment.membership-index.rebuild-interval:PT10M}")
+    // ✅ Not read-only: those transactions may be served by a lagging replica, this must see every commit
+    @Transactional
+    public synchronized void warmUp() {
+        if (!enabled) {
+            log.info("ℹ️ Membership index disabled, enrollment checks go to the database");
+            return;
+        }
+        long start = System.nanoTime();
+        LongPairSet rebuilt = new LongPairSet(segments);
+        Queue<Change> changes = new ConcurrentLinkedQueue<>();
+        changesDuringRebuild = changes;
+        try (Stream<EnrollmentRepository.Membership> all = enrollmentRepository.streamAllMemberships()) {
+            all.forEach(m -> rebuilt.add(m.getUserId(), m.getCourseId()));
+        }
+        swapLock.writeLock().lock();
+        try {
+            // ✅ A change may have committed before or after the stream read its pair; replaying it is right either way
+            changes.forEach(change -> change.applyTo(rebuilt));
+            memberships = rebuilt;
+            changesDuringRebuild = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("📇 Membership index built with {} enrollments ({} KiB) in {} ms",
+                rebuilt.size(), rebuilt.memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void enrolled(Long userId, Long courseId) {
+        AfterCommit.run(() -> apply(new Change(userId, courseId, true)));
+    }
+
+    public void unenrolled(Long userId, Long courseId) {
+        AfterCommit.run(() -> apply(new Change(userId, courseId, false)));
+    }
+
+    /**
+     * ✅ Pairs touched anywhere in the cluster: one query for the batch tells which of them exist now
+     */
+    @Override
+    @Transactional
+    public void onPublished(List<EnrollmentEventMessage> events) {
+        if (!enabled) {
+            return;
+        }
+        Set<Pair> touched = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        for (EnrollmentEventMessage event : events) {
+            touched.add(new Pair(event.userId(), event.courseId()));
+            userIds.add(event.userId());
+            courseIds.add(event.courseId());
+        }
+        Set<Pair> existing = new HashSet<>();
+        enrollmentRepository.findMemberships(userIds, courseIds)
+                .forEach(m -> existing.add(new Pair(m.getUserId(), m.getCourseId())));
+        touched.forEach(pair -> apply(new Change(pair.userId(), pair.courseId(), existing.contains(pair))));
+    }
+
+    private void apply(Change change) {
+        swapLock.readLock().lock();
+        try {
+            change.applyTo(memberships);
+            Queue<Change> changes = changesDuringRebuild;
+            if (changes != null) {
+                changes.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private record Pair(Long userId, Long courseId) {
+    }
+
+    private record Change(long userId, long courseId, boolean member) {
+        void applyTo(LongPairSet set) {
+            if (member) {
+                set.add(userId, courseId);
+            } else {
+                set.remove(userId, courseId);
+            }
+        }
+    }
+}
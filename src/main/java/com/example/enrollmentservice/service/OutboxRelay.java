@@ -0,0 +1,124 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ✅ Moves committed outbox events to the {@link EnrollmentEventSink}s in batches, oldest first.
+ * <p>
+ * Each batch is claimed, numbered, handed to every sink and marked published in one transaction, so a failing sink
+ * leaves it for the next run (at-least-once). Claimed rows are locked with SKIP LOCKED, so relays on several nodes
+ * never publish the same event twice; sinks here see only the batches their own node relayed, which is why
+ * per-node consumers (SSE subscribers, in-memory views) follow the published rows through {@link OutboxTail} instead.
+ * Published rows are kept for {@code enrollment.outbox.retention} to let consumers catch up after a reconnect.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final EnrollmentEventRepository eventRepository;
+    private final List<EnrollmentEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter published;
+    private final Timer lag;
+
+    public OutboxRelay(EnrollmentEventRepository eventRepository,
+                       List<EnrollmentEventSink> sinks,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${enrollment.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${enrollment.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${enrollment.outbox.retention:P7D}") Duration retention) {
+        this.eventRepository = eventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.published = Counter.builder("enrollment.outbox.published")
+                .description("Outbox events handed to the sinks")
+                .register(meterRegistry);
+        this.lag = Timer.builder("enrollment.outbox.lag")
+                .description("Time from an enrollment change to its event being published")
+                .register(meterRegistry);
+    }
+
+    /**
+     * ✅ Drain the outbox: keep relaying full batches until a short one shows it is caught up
+     */
+    @Scheduled(fixedDelayString = "${enrollment.outbox.relay.interval:PT1S}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(tx -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<EnrollmentEvent> batch = eventRepository.claimUnpublished(PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // ✅ Numbered first: the counter row lock is what orders this commit after every lower sequence number
+        eventRepository.reservePublishSeq(batch.size());
+        long seq = eventRepository.lastPublishSeq() - batch.size();
+        LocalDateTime now = LocalDateTime.now();
+        for (EnrollmentEvent event : batch) {
+            event.setPublishSeq(++seq);
+            event.setPublishedAt(now);
+        }
+        List<EnrollmentEventMessage> messages = batch.stream().map(OutboxRelay::toMessage).toList();
+        for (EnrollmentEventSink sink : sinks) {
+            sink.publish(messages);
+        }
+
+        published.increment(batch.size());
+        batch.forEach(event -> lag.record(Duration.between(event.getOccurredAt(), now)));
+        log.debug("📤 Relayed {} enrollment events", batch.size());
+        return batch.size();
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.outbox.purge-interval:PT1H}",
+            initialDelayString = "${enrollment.outbox.purge-interval:PT1H}")
+    public void purge() {
+        Integer purged = transactionTemplate.execute(tx ->
+                eventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("🧹 Purged {} published enrollment events older than {}", purged, retention);
+        }
+    }
+
+    public static EnrollmentEventMessage toMessage(EnrollmentEvent event) {
+        return new EnrollmentEventMessage(
+                event.getId(),
+                event.getPublishSeq(),
+                event.getType(),
+                event.getEnrollmentId(),
+                event.getUserId(),
+                event.getCourseId(),
+                event.getStatus(),
+                event.getPreviousStatus(),
+                event.getOccurredAt()
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * ✅ Follows the published outbox on this node, by publish sequence, and hands new events to the local
+ * {@link PublishedEventListener}s. The relay publishes each event on one node only; the tail is how every node
+ * (SSE subscribers, membership index, read cache) learns about changes made anywhere.
+ * <p>
+ * Starts at the newest event when the bean is created, before any in-memory view warms up: older changes are in
+ * the data they warm from, later ones are published after it and reach them through here.
+ */
+@Component
+@Slf4j
+public class OutboxTail {
+
+    private final EnrollmentEventRepository eventRepository;
+    private final List<PublishedEventListener> listeners;
+    private final boolean enabled;
+    private final int batchSize;
+    private volatile long position;
+
+    public OutboxTail(EnrollmentEventRepository eventRepository,
+                      List<PublishedEventListener> listeners,
+                      @Value("${enrollment.outbox.tail.enabled:true}") boolean enabled,
+                      @Value("${enrollment.outbox.tail.batch-size:1000}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            position = eventRepository.maxPublishSeq();
+            log.info("📡 Tailing published enrollment events after #{}", position);
+        }
+    }
+
+    /**
+     * ✅ Sequence of the last event handed to the listeners
+     */
+    public long position() {
+        return position;
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.outbox.tail.interval:PT0.5S}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        List<EnrollmentEventMessage> events;
+        do {
+            events = eventRepository.findPublishedAfter(position, PageRequest.ofSize(batchSize)).stream()
+                    .map(OutboxRelay::toMessage)
+                    .toList();
+            if (events.isEmpty()) {
+                return;
+            }
+            for (PublishedEventListener listener : listeners) {
+                try {
+                    listener.onPublished(events);
+                } catch (RuntimeException e) {
+                    // ✅ One broken view must not hold back the others; periodic rebuilds repair it
+                    log.warn("⚠️ {} failed on published events: {}", listener.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+            position = events.get(events.size() - 1).sequence();
+        } while (events.size() == batchSize);
+    }
+}
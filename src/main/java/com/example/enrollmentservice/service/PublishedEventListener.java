@@ -0,0 +1,14 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+
+import java.util.List;
+
+/**
+ * ✅ Node-local consumer of published enrollment events. Every node's {@link OutboxTail} hands each listener every
+ * published event once, in publish order, outside any transaction, whichever node relayed or caused it.
+ */
+public interface PublishedEventListener {
+
+    void onPublished(List<EnrollmentEventMessage> events);
+}
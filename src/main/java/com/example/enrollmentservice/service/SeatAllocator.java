@@ -0,0 +1,135 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.config.ReplicaRoutingDataSource;
+import com.example.enrollmentservice.dto.CourseCapacityResponse;
+import com.example.enrollmentservice.model.CourseCapacity;
+import com.example.enrollmentservice.repository.CourseCapacityRepository;
+import com.example.enrollmentservice.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ✅ Seat limits per course.
+ * <p>
+ * A seat is taken with a single conditional UPDATE in the enrolling transaction, so the database row lock of
+ * that one course is the only thing concurrent enrollments wait on and a course can never be oversold.
+ * Unlimited courses have a row too (created with their first seat, limit {@code null}): every seat is counted on
+ * the same row a new limit is written to, so setting a limit and enrolling always exclude each other. Once a
+ * course is seen full, further attempts are rejected from memory for a short while instead of queueing on its row.
+ */
+@Service
+@Slf4j
+public class SeatAllocator {
+
+    private final CourseCapacityRepository courseCapacityRepository;
+    private final long fullHintMillis;
+    private final Map<Long, Long> fullUntil = new ConcurrentHashMap<>();
+
+    public SeatAllocator(CourseCapacityRepository courseCapacityRepository,
+                         @Value("${enrollment.capacity.full-hint:PT1S}") Duration fullHint) {
+        this.courseCapacityRepository = courseCapacityRepository;
+        this.fullHintMillis = fullHint.toMillis();
+    }
+
+    /**
+     * ✅ Take seats for new ENROLLED rows, or throw 409 if the course does not have that many left
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void takeSeats(Long courseId, int seats) {
+        if (!tryTakeSeats(courseId, seats)) {
+            throw courseFull();
+        }
+    }
+
+    /**
+     * ✅ Same as {@link #takeSeats}, but a full course answers false: nothing was changed and, unlike an exception,
+     * the caller's transaction is not marked rollback-only
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryTakeSeats(Long courseId, int seats) {
+        if (seats <= 0) {
+            return true;
+        }
+        Long until = fullUntil.get(courseId);
+        if (until != null && until > System.currentTimeMillis()) {
+            return false;
+        }
+        if (courseCapacityRepository.tryTakeSeats(courseId, seats) == 1) {
+            return true;
+        }
+        // ✅ The course's first seats: create its row, then take them like any other (a limit may have just arrived)
+        if (!courseCapacityRepository.existsById(courseId)) {
+            courseCapacityRepository.insertUnlimited(courseId);
+            if (courseCapacityRepository.tryTakeSeats(courseId, seats) == 1) {
+                return true;
+            }
+        }
+        if (seats == 1) {
+            fullUntil.put(courseId, System.currentTimeMillis() + fullHintMillis);
+        }
+        log.info("🚫 Course {} has fewer than {} seats left", courseId, seats);
+        return false;
+    }
+
+    /**
+     * ✅ Give seats back when ENROLLED rows go away
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseSeats(Long courseId, int seats) {
+        if (seats > 0 && courseCapacityRepository.releaseSeats(courseId, seats) == 1) {
+            AfterCommit.run(() -> fullUntil.remove(courseId));
+        }
+    }
+
+    /**
+     * ✅ Set or change a course's seat limit. Courses that already took seats keep their exact count; a course
+     * without a row has no seats counted yet, so its row starts from its ENROLLED headcount.
+     * Not one transaction: on PostgreSQL a failed insert would abort it, and a lost insert race has to become an update.
+     */
+    public CourseCapacityResponse setCapacity(Long courseId, Integer seatLimit) {
+        if (seatLimit == null || seatLimit < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "seatLimit must be zero or more.");
+        }
+        if (courseCapacityRepository.updateSeatLimit(courseId, seatLimit) == 0) {
+            try {
+                if (courseCapacityRepository.insertCountingEnrolled(courseId, seatLimit) == 0) {
+                    courseCapacityRepository.updateSeatLimit(courseId, seatLimit);
+                }
+            } catch (DataIntegrityViolationException e) {
+                // ✅ A concurrent request created the row first; this one only changes its limit
+                courseCapacityRepository.updateSeatLimit(courseId, seatLimit);
+            }
+        }
+        fullUntil.remove(courseId);
+        CourseCapacity saved = ReplicaRoutingDataSource.onPrimary(() -> courseCapacityRepository.findById(courseId))
+                .orElseThrow();
+        log.info("🎟️ Course {} capacity set to {} ({} taken)", courseId, seatLimit, saved.getSeatsTaken());
+        return toResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public CourseCapacityResponse getCapacity(Long courseId) {
+        return courseCapacityRepository.findById(courseId)
+                .filter(capacity -> capacity.getSeatLimit() != null)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Course has no seat limit."));
+    }
+
+    private CourseCapacityResponse toResponse(CourseCapacity capacity) {
+        return new CourseCapacityResponse(capacity.getCourseId(), capacity.getSeatLimit(), capacity.getSeatsTaken());
+    }
+
+    private static ResponseStatusException courseFull() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Course is full.");
+    }
+}
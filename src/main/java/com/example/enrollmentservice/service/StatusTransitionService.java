@@ -0,0 +1,283 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.StatusTransitionJobResponse;
+import com.example.enrollmentservice.dto.StatusTransitionRequest;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.model.StatusTransitionJob;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.repository.StatusTransitionJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ✅ Bulk status transitions of a course's roster (e.g. complete everyone still ENROLLED once the course ended).
+ * <p>
+ * A job walks the course's rows in id order, {@code chunk-size} at a time. Each chunk is one short transaction: lock
+ * the next ids after the job's {@code lastId}, change them with one UPDATE, release their seats, record events and
+ * move {@code lastId} forward. So no lock outlives a chunk, progress is visible while the job runs, and a job that
+ * failed or was cut off by a restart continues where its last chunk committed.
+ * <p>
+ * A RUNNING job is leased by the node running it: every chunk renews {@code updatedAt}, and the job's version makes a
+ * node that lost the lease fail its chunk instead of overwriting progress. Every node looks for RUNNING jobs whose
+ * lease expired (their node died) and takes them over, one node per job.
+ */
+@Service
+@Slf4j
+public class StatusTransitionService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final StatusTransitionJobRepository jobRepository;
+    private final SeatAllocator seatAllocator;
+    private final EnrollmentCounters enrollmentCounters;
+    private final EnrollmentOutbox outbox;
+    private final EnrollmentReadCache readCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Duration lease;
+    private final String owner;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "status-transitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StatusTransitionService(EnrollmentRepository enrollmentRepository,
+                                   StatusTransitionJobRepository jobRepository,
+                                   SeatAllocator seatAllocator,
+                                   EnrollmentCounters enrollmentCounters,
+                                   EnrollmentOutbox outbox,
+                                   EnrollmentReadCache readCache,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${enrollment.status-transition.chunk-size:1000}") int chunkSize,
+                                   @Value("${enrollment.status-transition.pause:PT0.02S}") Duration pause,
+                                   @Value("${enrollment.status-transition.lease:PT1M}") Duration lease) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.jobRepository = jobRepository;
+        this.seatAllocator = seatAllocator;
+        this.enrollmentCounters = enrollmentCounters;
+        this.outbox = outbox;
+        this.readCache = readCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pause.toMillis();
+        this.lease = lease;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * ✅ Validate the transition, record the job and run it in the background
+     */
+    public StatusTransitionJobResponse start(Long courseId, StatusTransitionRequest request) {
+        EnrollmentStatus from = request.from() != null ? request.from() : EnrollmentStatus.ENROLLED;
+        EnrollmentStatus to = request.to();
+        if (to == null || !from.canBecome(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Enrollments cannot move from " + from + " to " + to + ".");
+        }
+        if (jobRepository.existsByCourseIdAndState(courseId, StatusTransitionJob.State.RUNNING)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A status transition is already running for this course.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        StatusTransitionJob job = new StatusTransitionJob();
+        job.setCourseId(courseId);
+        job.setFromStatus(from);
+        job.setToStatus(to);
+        job.setState(StatusTransitionJob.State.RUNNING);
+        job.setTotal(enrollmentRepository.countByCourseIdAndStatus(courseId, from));
+        job.setOwner(owner);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        job = saveRunning(job);
+        log.info("🔁 Status transition {} started: course {} {} → {}, {} enrollments",
+                job.getId(), courseId, from, to, job.getTotal());
+        submit(job.getId());
+        return StatusTransitionJobResponse.of(job);
+    }
+
+    public StatusTransitionJobResponse getJob(Long jobId) {
+        return StatusTransitionJobResponse.of(findJob(jobId));
+    }
+
+    /**
+     * ✅ Continue a FAILED job from its last committed chunk
+     */
+    public StatusTransitionJobResponse resume(Long jobId) {
+        StatusTransitionJob job = findJob(jobId);
+        if (job.getState() != StatusTransitionJob.State.FAILED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only failed jobs can be resumed.");
+        }
+        job.setState(StatusTransitionJob.State.RUNNING);
+        job.setError(null);
+        job.setOwner(owner);
+        job.setUpdatedAt(LocalDateTime.now());
+        try {
+            job = saveRunning(job);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The job was changed meanwhile.");
+        }
+        log.info("🔁 Status transition {} resumed after enrollment {}", jobId, job.getLastId());
+        submit(jobId);
+        return StatusTransitionJobResponse.of(job);
+    }
+
+    /**
+     * ✅ RUNNING jobs whose lease expired were cut off with their node; take them over where they stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${enrollment.status-transition.lease-check-interval:PT30S}",
+            initialDelayString = "${enrollment.status-transition.lease-check-interval:PT30S}")
+    public void resumeInterrupted() {
+        List<StatusTransitionJob> abandoned = jobRepository.findByStateAndUpdatedAtBefore(
+                StatusTransitionJob.State.RUNNING, LocalDateTime.now().minus(lease));
+        for (StatusTransitionJob job : abandoned) {
+            String previousOwner = job.getOwner();
+            job.setOwner(owner);
+            job.setUpdatedAt(LocalDateTime.now());
+            try {
+                jobRepository.save(job);
+            } catch (OptimisticLockingFailureException e) {
+                // ✅ Another node took it over (or its owner renewed the lease) since we read it
+                continue;
+            }
+            log.info("🔁 Status transition {} taken over from {}, continues after enrollment {}",
+                    job.getId(), previousOwner, job.getLastId());
+            submit(job.getId());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * ✅ Insert or update a job into RUNNING; a second RUNNING job for the course is a conflict, however close the race
+     */
+    private StatusTransitionJob saveRunning(StatusTransitionJob job) {
+        try {
+            return jobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            if (isRunningCourseConstraint(e)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A status transition is already running for this course.");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isRunningCourseConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null
+                        && name.toLowerCase(Locale.ROOT).contains(StatusTransitionJob.RUNNING_COURSE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private void submit(Long jobId) {
+        executor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        try {
+            Integer changed;
+            do {
+                changed = transactionTemplate.execute(tx -> applyChunk(jobId));
+                if (changed != null && changed == chunkSize && pauseMillis > 0) {
+                    // ✅ Let other writers to the course in between chunks
+                    Thread.sleep(pauseMillis);
+                }
+            } while (changed != null && changed == chunkSize);
+            transactionTemplate.executeWithoutResult(tx -> finish(jobId, StatusTransitionJob.State.COMPLETED, null));
+            log.info("✅ Status transition {} completed", jobId);
+        } catch (InterruptedException e) {
+            // ✅ Shutting down: the job stays RUNNING and is taken over once its lease expires
+            Thread.currentThread().interrupt();
+        } catch (LeaseLostException | OptimisticLockingFailureException e) {
+            log.warn("⚠️ Status transition {} is no longer leased by this node, leaving it to its new owner", jobId);
+        } catch (RuntimeException e) {
+            log.warn("❌ Status transition {} failed: {}", jobId, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(tx -> finish(jobId, StatusTransitionJob.State.FAILED,
+                        String.valueOf(e.getMessage())));
+            } catch (LeaseLostException | OptimisticLockingFailureException lost) {
+                log.warn("⚠️ Status transition {} was taken over before its failure was recorded", jobId);
+            }
+        }
+    }
+
+    private int applyChunk(Long jobId) {
+        StatusTransitionJob job = leasedJob(jobId);
+        Long courseId = job.getCourseId();
+        EnrollmentStatus from = job.getFromStatus();
+        EnrollmentStatus to = job.getToStatus();
+        List<EnrollmentRepository.IdAndUser> rows =
+                enrollmentRepository.lockChunk(courseId, from.name(), job.getLastId(), chunkSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        enrollmentRepository.updateStatus(rows.stream().map(EnrollmentRepository.IdAndUser::getId).toList(), to);
+        if (from == EnrollmentStatus.ENROLLED) {
+            seatAllocator.releaseSeats(courseId, rows.size());
+        }
+        rows.forEach(row -> {
+            outbox.statusChanged(row.getId(), row.getUserId(), courseId, from, to);
+            enrollmentCounters.statusChanged(row.getUserId(), courseId, from, to);
+            readCache.changed(row.getId(), row.getUserId(), courseId);
+        });
+        job.setLastId(rows.get(rows.size() - 1).getId());
+        job.setProcessed(job.getProcessed() + rows.size());
+        job.setUpdatedAt(LocalDateTime.now());
+        return rows.size();
+    }
+
+    private void finish(Long jobId, StatusTransitionJob.State state, String error) {
+        StatusTransitionJob job = leasedJob(jobId);
+        job.setState(state);
+        job.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+        job.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /**
+     * ✅ The job, if it is still RUNNING under this node's lease; the version check at commit covers a takeover after this
+     */
+    private StatusTransitionJob leasedJob(Long jobId) {
+        StatusTransitionJob job = jobRepository.findById(jobId).orElseThrow();
+        if (job.getState() != StatusTransitionJob.State.RUNNING || !owner.equals(job.getOwner())) {
+            throw new LeaseLostException();
+        }
+        return job;
+    }
+
+    private StatusTransitionJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Status transition job not found."));
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+    }
+}
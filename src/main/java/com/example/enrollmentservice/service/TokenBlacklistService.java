@@ -1,20 +1,230 @@
 package com.example.enrollmentservice.service;
 
+import com.example.enrollmentservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * ✅ Revoked tokens, keyed by a 128-bit SHA-256 prefix of the token and kept only until the token expires.
+ * <p>
+ * An optional Bloom filter answers the common "not revoked" case without hashing or allocating.
+ * An optional snapshot file lets revocations survive restarts.
+ */
 @Service
+@Slf4j
 public class TokenBlacklistService {
 
-    private final Set<String> blackList = new HashSet<>();
+    record TokenDigest(long high, long low) {
+    }
+
+    /** Expiry plus the token's two Bloom hashes, so the filter can be rebuilt without the token itself */
+    record Revocation(long expiresAt, int hash1, int hash2) {
+    }
+
+    private final JwtUtil jwtUtil;
+    private final Map<TokenDigest, Revocation> revoked = new ConcurrentHashMap<>();
+    private final boolean bloomEnabled;
+    private final int bloomBits;
+    private final int bloomHashes;
+    private final Path snapshotFile;
+    private volatile AtomicLongArray bloom;
+
+    public TokenBlacklistService(JwtUtil jwtUtil,
+                                 @Value("${enrollment.revocation.bloom.enabled:true}") boolean bloomEnabled,
+                                 @Value("${enrollment.revocation.bloom.expected-entries:100000}") int expectedEntries,
+                                 @Value("${enrollment.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${enrollment.revocation.snapshot-file:}") String snapshotFile) {
+        this.jwtUtil = jwtUtil;
+        this.bloomEnabled = bloomEnabled;
+        // ✅ Standard Bloom sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bloomBits = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+        this.bloomHashes = Math.max(1, (int) Math.round((double) bloomBits / expectedEntries * Math.log(2)));
+        this.bloom = new AtomicLongArray((bloomBits + 63) / 64);
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
 
     public boolean isTokenRevoked(String token) {
-        return blackList.contains(token);
+        if (revoked.isEmpty()) {
+            return false;
+        }
+        if (bloomEnabled && !mightBeRevoked(token)) {
+            return false;
+        }
+        Revocation revocation = revoked.get(digest(token));
+        return revocation != null && revocation.expiresAt() > System.currentTimeMillis();
     }
 
+    /**
+     * ✅ Revoke a token until its own expiry; invalid or already expired tokens are rejected anyway and ignored
+     */
     public void revokeToken(String token) {
-        blackList.add(token);
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Ignoring revocation of an invalid token: {}", e.getMessage());
+            return;
+        }
+        if (claims.getExpiration() == null) {
+            log.warn("⚠️ Revoked token has no expiry, it stays revoked indefinitely");
+            revokeToken(token, Instant.MAX);
+            return;
+        }
+        revokeToken(token, claims.getExpiration().toInstant());
+    }
+
+    public void revokeToken(String token, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.equals(Instant.MAX) ? Long.MAX_VALUE : expiresAt.toEpochMilli();
+        Revocation revocation = new Revocation(expiresAtMillis, token.hashCode(), fnv1a(token));
+        revoked.merge(digest(token), revocation,
+                (existing, added) -> existing.expiresAt() >= added.expiresAt() ? existing : added);
+        if (bloomEnabled) {
+            addToBloom(bloom, revocation);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * ✅ Drop expired revocations and rebuild the Bloom filter so it does not fill up
+     */
+    @Scheduled(fixedDelayString = "${enrollment.revocation.purge-interval:PT5M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(revocation -> revocation.expiresAt() <= now);
+        if (bloomEnabled) {
+            rebuildBloom();
+        }
+        if (before != revoked.size()) {
+            log.info("🧹 Purged {} expired revoked tokens", before - revoked.size());
+        }
+        writeSnapshot();
+    }
+
+    @PostConstruct
+    void loadSnapshot() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                TokenDigest digest = new TokenDigest(in.readLong(), in.readLong());
+                Revocation revocation = new Revocation(in.readLong(), in.readInt(), in.readInt());
+                if (revocation.expiresAt() > now) {
+                    revoked.put(digest, revocation);
+                }
+            }
+            if (bloomEnabled) {
+                rebuildBloom();
+            }
+            log.info("📂 Restored {} revoked tokens from {}", revoked.size(), snapshotFile);
+        } catch (IOException e) {
+            log.error("❌ Could not read revocation snapshot {}", snapshotFile, e);
+        }
+    }
+
+    @PreDestroy
+    void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "revocations", ".tmp");
+            Map<TokenDigest, Revocation> copy = Map.copyOf(revoked);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(copy.size());
+                for (Map.Entry<TokenDigest, Revocation> entry : copy.entrySet()) {
+                    out.writeLong(entry.getKey().high());
+                    out.writeLong(entry.getKey().low());
+                    out.writeLong(entry.getValue().expiresAt());
+                    out.writeInt(entry.getValue().hash1());
+                    out.writeInt(entry.getValue().hash2());
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("❌ Could not write revocation snapshot {}", snapshotFile, e);
+        }
+    }
+
+    private boolean mightBeRevoked(String token) {
+        AtomicLongArray bits = bloom;
+        int h1 = token.hashCode();
+        int h2 = fnv1a(token);
+        for (int i = 0; i < bloomHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bloomBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addToBloom(AtomicLongArray bits, Revocation revocation) {
+        int h1 = revocation.hash1();
+        int h2 = revocation.hash2();
+        for (int i = 0; i < bloomHashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bloomBits);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private void rebuildBloom() {
+        AtomicLongArray rebuilt = new AtomicLongArray(bloom.length());
+        revoked.values().forEach(revocation -> addToBloom(rebuilt, revocation));
+        bloom = rebuilt;
+        // ✅ Revocations added while rebuilding may have gone to the old array only
+        revoked.values().forEach(revocation -> addToBloom(bloom, revocation));
+    }
+
+    private static int fnv1a(String token) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+
+    private static TokenDigest digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
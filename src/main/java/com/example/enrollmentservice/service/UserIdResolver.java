@@ -0,0 +1,188 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ✅ Resolves the caller's userId.
+ * <p>
+ * With the {@code claims} strategy the id is read straight from the JWT claims already verified by
+ * {@link JwtAuthFilter}; only tokens without the claim fall back to the user service. The {@code remote}
+ * strategy always asks the user service. Remote answers are cached per token subject; the calls themselves go
+ * through the bulkhead and circuit breaker of {@code UserServiceClientConfig} and fail with 503 when either rejects.
+ */
+@Component
+@Slf4j
+public class UserIdResolver {
+
+    public enum Strategy { CLAIMS, REMOTE }
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final EnrollmentMetrics metrics;
+    private final Strategy strategy;
+    private final String userIdClaim;
+    private final String userServiceUrl;
+    private final AsyncCache<String, Long> remoteCache;
+
+    public UserIdResolver(RestTemplate restTemplate,
+                          CircuitBreaker userServiceCircuitBreaker,
+                          Bulkhead userServiceBulkhead,
+                          MeterRegistry meterRegistry,
+                          EnrollmentMetrics metrics,
+                          @Value("${enrollment.user-id.strategy:claims}") String strategy,
+                          @Value("${enrollment.user-id.claim:userId}") String userIdClaim,
+                          @Value("${enrollment.user-id.url:http://userservice/user/email}") String userServiceUrl,
+                          @Value("${enrollment.user-id.cache.max-size:10000}") long cacheMaxSize,
+                          @Value("${enrollment.user-id.cache.ttl:PT10M}") Duration cacheTtl) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = userServiceCircuitBreaker;
+        this.bulkhead = userServiceBulkhead;
+        this.metrics = metrics;
+        this.strategy = Strategy.valueOf(strategy.trim().toUpperCase());
+        this.userIdClaim = userIdClaim;
+        this.userServiceUrl = userServiceUrl;
+        this.remoteCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, remoteCache.synchronous(), "userIdCache");
+    }
+
+    /**
+     * ✅ Resolve the userId of the authenticated caller
+     */
+    public Long resolve(HttpServletRequest request) {
+        String token = request.getHeader("Authorization");
+        if (token == null || token.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization token is missing.");
+        }
+
+        Claims claims = (Claims) request.getAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE);
+        if (claims == null) {
+            return fetchUserIdFromUserService(token);
+        }
+
+        if (strategy == Strategy.CLAIMS) {
+            Long userId = userIdFromClaims(claims);
+            if (userId != null) {
+                return userId;
+            }
+        }
+
+        String subject = claims.getSubject();
+        if (subject == null) {
+            return fetchUserIdFromUserService(token);
+        }
+        return cachedFetch(subject, token);
+    }
+
+    /**
+     * ✅ Concurrent misses for one subject share a single remote call. The call runs outside the cache's
+     * compute, which holds a monitor: blocking there would pin a virtual thread and stall other keys of the bin.
+     */
+    private Long cachedFetch(String subject, String token) {
+        CompletableFuture<Long> created = new CompletableFuture<>();
+        CompletableFuture<Long> result = remoteCache.get(subject, (key, executor) -> created);
+        if (result == created) {
+            try {
+                created.complete(fetchUserIdFromUserService(token));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Long userIdFromClaims(Claims claims) {
+        Object value = claims.get(userIdClaim);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Long.valueOf(text.trim());
+            } catch (NumberFormatException e) {
+                log.warn("⚠️ Ignoring non-numeric '{}' claim: {}", userIdClaim, text);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ✅ Call UserService to extract userId from token
+     */
+    private Long fetchUserIdFromUserService(String token) {
+        return metrics.stage(EnrollmentMetrics.Stage.USER_SERVICE_CALL, () -> guardedCall(token));
+    }
+
+    /**
+     * ✅ Circuit breaker outside, bulkhead inside: an open circuit rejects before taking a bulkhead permit
+     */
+    private Long guardedCall(String token) {
+        try {
+            return circuitBreaker.executeSupplier(Bulkhead.decorateSupplier(bulkhead, () -> callUserService(token)));
+        } catch (CallNotPermittedException e) {
+            log.debug("⛔ User service circuit is open, failing fast");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User service unavailable.");
+        } catch (BulkheadFullException e) {
+            log.debug("⛔ Too many concurrent user service calls");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User service busy.");
+        } catch (HttpClientErrorException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Failed to extract user ID from token.");
+        } catch (RestClientException e) {
+            log.warn("⚠️ User service call failed: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User service unavailable.");
+        }
+    }
+
+    private Long callUserService(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", token);
+
+        HttpEntity<Void> entity = new HttpEntity<>(headers);
+
+        ResponseEntity<Long> response = restTemplate.exchange(
+                userServiceUrl,
+                HttpMethod.GET,
+                entity,
+                Long.class
+        );
+
+        if (response == null || !response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Failed to extract user ID from token.");
+        }
+
+        return response.getBody();
+    }
+}
@@ -2,29 +2,30 @@ package com.example.enrollmentservice.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 @Component
+@Slf4j
 public class JwtUtil {
 
-    private Key secretKey;
+    private final Key secretKey;
+    private final JwtParser parser;
     private final long expiration = 1000 * 60 * 60; // 1 hour
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @PostConstruct
-    public void init() {
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
         // ✅ Use plain bytes directly (NOT Base64-decoded!)
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        // ✅ Parsers are immutable and thread-safe, build it once
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
 
@@ -45,12 +46,11 @@ public class JwtUtil {
         return extractAllClaims(token).getSubject();
     }
 
+    /**
+     * ✅ Parse and verify the token, throwing a {@link JwtException} if it is invalid or expired
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public boolean isTokenValid(String token) {
@@ -58,7 +58,7 @@ public class JwtUtil {
             extractAllClaims(token);
             return true;
         } catch (Exception e) {
-            System.out.println("❌ Token invalid: " + e.getMessage());
+            log.debug("❌ Token invalid: {}", e.getMessage());
             return false;
         }
     }
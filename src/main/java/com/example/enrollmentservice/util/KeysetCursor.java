@@ -0,0 +1,39 @@
+package com.example.enrollmentservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * ✅ Opaque continuation token for (enrolledAt, id) keyset pagination
+ */
+public record KeysetCursor(LocalDateTime enrolledAt, Long id) {
+
+    /**
+     * ✅ @throws IllegalArgumentException if either part is missing: such a cursor could not be decoded again
+     */
+    public KeysetCursor {
+        if (enrolledAt == null || id == null) {
+            throw new IllegalArgumentException("Cursor needs both enrolledAt and id");
+        }
+    }
+
+    public String encode() {
+        String raw = enrolledAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * ✅ @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
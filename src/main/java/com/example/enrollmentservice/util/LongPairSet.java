@@ -0,0 +1,246 @@
+package com.example.enrollmentservice.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ✅ Concurrent set of (long, long) pairs stored in flat primitive arrays.
+ * <p>
+ * Pairs are spread over independently locked segments, each an open-addressing table with linear probing
+ * and backward-shift deletion. Lookups use optimistic reads and take no lock unless a writer interferes.
+ * {@link Long#MIN_VALUE} is reserved as the empty marker and cannot be used as the first element.
+ */
+public class LongPairSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public LongPairSet(int segmentCount) {
+        int count = Integer.highestOneBit(Math.max(1, segmentCount - 1) << 1);
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public boolean contains(long first, long second) {
+        long hash = hash(first, second);
+        return segmentFor(hash).contains(first, second, hash);
+    }
+
+    /**
+     * ✅ @return {@code true} if the pair was not present yet
+     */
+    public boolean add(long first, long second) {
+        if (first == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE is reserved");
+        }
+        long hash = hash(first, second);
+        return segmentFor(hash).add(first, second, hash);
+    }
+
+    public boolean remove(long first, long second) {
+        long hash = hash(first, second);
+        return segmentFor(hash).remove(first, second, hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * ✅ Heap used by the backing arrays: two longs per slot, whether occupied or not
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    private static long hash(long first, long second) {
+        // ✅ Mix both halves (murmur3 finalizer) so sequential ids spread over segments and slots
+        long h = first * 0x9E3779B97F4A7C15L + second;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Segment {
+
+        private final StampedLock lock = new StampedLock();
+        private long[] firsts;
+        private long[] seconds;
+        private int size;
+
+        Segment() {
+            clear();
+        }
+
+        boolean contains(long first, long second, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                boolean found = probe(firsts, seconds, first, second, hash) >= 0;
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(firsts, seconds, first, second, hash) >= 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean add(long first, long second, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                if (probe(firsts, seconds, first, second, hash) >= 0) {
+                    return false;
+                }
+                if (size + 1 > firsts.length * LOAD_FACTOR) {
+                    resize(firsts.length << 1);
+                }
+                insert(firsts, seconds, first, second, hash);
+                size++;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean remove(long first, long second, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = probe(firsts, seconds, first, second, hash);
+                if (slot < 0) {
+                    return false;
+                }
+                shiftBack(slot);
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long memoryBytes() {
+            long stamp = lock.readLock();
+            try {
+                return 2L * Long.BYTES * firsts.length;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                firsts = new long[16];
+                seconds = new long[16];
+                Arrays.fill(firsts, EMPTY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * ✅ Slot of the pair or -1. Reads the arrays it is given, so a racing resize is caught by validate()
+         */
+        private static int probe(long[] firsts, long[] seconds, long first, long second, long hash) {
+            if (firsts.length != seconds.length) {
+                return -1;
+            }
+            int mask = firsts.length - 1;
+            int slot = (int) hash & mask;
+            for (int i = 0; i <= mask; i++) {
+                long current = firsts[slot];
+                if (current == EMPTY) {
+                    return -1;
+                }
+                if (current == first && seconds[slot] == second) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static void insert(long[] firsts, long[] seconds, long first, long second, long hash) {
+            int mask = firsts.length - 1;
+            int slot = (int) hash & mask;
+            while (firsts[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            firsts[slot] = first;
+            seconds[slot] = second;
+        }
+
+        private void resize(int capacity) {
+            long[] newFirsts = new long[capacity];
+            long[] newSeconds = new long[capacity];
+            Arrays.fill(newFirsts, EMPTY);
+            for (int i = 0; i < firsts.length; i++) {
+                if (firsts[i] != EMPTY) {
+                    insert(newFirsts, newSeconds, firsts[i], seconds[i], hash(firsts[i], seconds[i]));
+                }
+            }
+            firsts = newFirsts;
+            seconds = newSeconds;
+        }
+
+        /**
+         * ✅ Backward-shift deletion keeps probe chains intact without tombstones
+         */
+        private void shiftBack(int slot) {
+            int mask = firsts.length - 1;
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (firsts[next] != EMPTY) {
+                int home = (int) hash(firsts[next], seconds[next]) & mask;
+                // ✅ Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    firsts[gap] = firsts[next];
+                    seconds[gap] = seconds[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            firsts[gap] = EMPTY;
+            seconds[gap] = 0;
+        }
+    }
+}
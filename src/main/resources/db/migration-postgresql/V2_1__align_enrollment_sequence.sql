@@ -0,0 +1,4 @@
+-- Ids issued by the old IDENTITY column sit above a freshly created sequence;
+-- move it past them so pooled id blocks never collide with existing rows.
+SELECT setval('enrollments_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM enrollments),
+                                          (SELECT last_value FROM enrollments_seq)));
@@ -0,0 +1,2 @@
+-- At most one RUNNING transition per course: two concurrent starts cannot both pass the existence check.
+CREATE UNIQUE INDEX uk_status_transition_jobs_running_course ON status_transition_jobs (course_id) WHERE state = 'RUNNING';
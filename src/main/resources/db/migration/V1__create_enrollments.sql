@@ -0,0 +1,11 @@
+-- Schema as previously generated by hibernate.ddl-auto=update. Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and skip it.
+CREATE TABLE IF NOT EXISTS enrollments (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    user_id     BIGINT,
+    course_id   BIGINT,
+    enrolled_at TIMESTAMP(6),
+    status      VARCHAR(255) NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS enrollments_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS enrollments_seq START WITH 1 INCREMENT BY 50;
+
+-- The old read-then-insert check was racy; keep the oldest row of any duplicate before enforcing uniqueness.
+DELETE FROM enrollments
+WHERE id IN (SELECT e.id
+             FROM enrollments e
+             WHERE EXISTS (SELECT 1
+                           FROM enrollments o
+                           WHERE o.user_id = e.user_id
+                             AND o.course_id = e.course_id
+                             AND o.id < e.id));
+
+-- findByUserIdAndCourseId, duplicate detection and batch checks
+CREATE UNIQUE INDEX uk_enrollments_user_course ON enrollments (user_id, course_id);
+
+-- findByUserId, countByUserId and the (enrolled_at, id) keyset listing
+CREATE INDEX idx_enrollments_user_enrolled_at ON enrollments (user_id, enrolled_at, id);
@@ -0,0 +1,2 @@
+-- Per-course counts and lookups by course (headcounts, bulk duplicate checks)
+CREATE INDEX idx_enrollments_course_user ON enrollments (course_id, user_id);
@@ -0,0 +1,7 @@
+-- Seat limits for courses that have one; courses without a row are unlimited.
+CREATE TABLE course_capacity (
+    course_id   BIGINT  NOT NULL PRIMARY KEY,
+    seat_limit  INTEGER NOT NULL,
+    seats_taken INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT ck_course_capacity_seats CHECK (seats_taken >= 0)
+);
@@ -0,0 +1,29 @@
+-- Change events written in the same transaction as the enrollment change, published by the outbox relay.
+CREATE TABLE enrollment_outbox (
+    id              BIGINT      NOT NULL PRIMARY KEY,
+    event_type      VARCHAR(32) NOT NULL,
+    enrollment_id   BIGINT      NOT NULL,
+    user_id         BIGINT      NOT NULL,
+    course_id       BIGINT      NOT NULL,
+    status          VARCHAR(32),
+    previous_status VARCHAR(32),
+    occurred_at     TIMESTAMP(6) NOT NULL,
+    published_at    TIMESTAMP(6)
+);
+
+CREATE SEQUENCE enrollment_outbox_seq START WITH 1 INCREMENT BY 50;
+
+-- the relay's "unpublished, oldest first" scan and the retention purge
+CREATE INDEX idx_enrollment_outbox_published_at ON enrollment_outbox (published_at, id);
+
+-- Position of an event in publish order, assigned by the relay when it marks the event published. Relays take the
+-- next numbers from this single-row counter, whose row lock is held until they commit, so a higher publish_seq
+-- always commits later: every node tails and replays in this order without gaps.
+ALTER TABLE enrollment_outbox ADD COLUMN publish_seq BIGINT;
+CREATE UNIQUE INDEX uk_enrollment_outbox_publish_seq ON enrollment_outbox (publish_seq);
+
+CREATE TABLE enrollment_outbox_publish_counter (
+    id       INT    NOT NULL PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+INSERT INTO enrollment_outbox_publish_counter (id, last_seq) VALUES (1, 0);
@@ -0,0 +1,23 @@
+-- Bulk status transitions (complete / cancel a course's roster), applied in chunks and resumable from last_id.
+-- A RUNNING job is leased by the node in owner; updated_at is its heartbeat, version guards concurrent writers.
+-- PostgreSQL also allows only one RUNNING job per course (V6_1 in migration-postgresql).
+CREATE TABLE status_transition_jobs (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    course_id   BIGINT       NOT NULL,
+    from_status VARCHAR(32)  NOT NULL,
+    to_status   VARCHAR(32)  NOT NULL,
+    state       VARCHAR(16)  NOT NULL,
+    last_id     BIGINT       NOT NULL DEFAULT 0,
+    processed   BIGINT       NOT NULL DEFAULT 0,
+    total       BIGINT       NOT NULL,
+    error       VARCHAR(500),
+    owner       VARCHAR(255),
+    version     BIGINT       NOT NULL DEFAULT 0,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE SEQUENCE status_transition_jobs_seq START WITH 1 INCREMENT BY 1;
+
+-- the next chunk of a course's rows in one status, in id order
+CREATE INDEX idx_enrollments_course_status_id ON enrollments (course_id, status, id);
@@ -0,0 +1,20 @@
+-- Cold storage for finished enrollments: COMPLETED / CANCELLED rows past enrollment.archive.age are moved here,
+-- so the hot enrollments table and its indexes only grow with active terms.
+CREATE TABLE enrollments_archive (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    user_id     BIGINT,
+    course_id   BIGINT,
+    enrolled_at TIMESTAMP(6),
+    status      VARCHAR(255) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- a finished (user, course) pair still blocks re-enrolling once archived
+CREATE INDEX idx_enrollments_archive_user_course ON enrollments_archive (user_id, course_id);
+
+-- history of a user, newest first, and of a course
+CREATE INDEX idx_enrollments_archive_user_enrolled_at ON enrollments_archive (user_id, enrolled_at, id);
+CREATE INDEX idx_enrollments_archive_course ON enrollments_archive (course_id, enrolled_at, id);
+
+-- the archiver's scan for finished rows past the cut-off
+CREATE INDEX idx_enrollments_status_enrolled_at ON enrollments (status, enrolled_at);
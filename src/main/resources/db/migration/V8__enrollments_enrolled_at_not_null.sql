@@ -0,0 +1,5 @@
+-- enrolled_at is the leading keyset column of the user listing: a row without it could not be turned into a
+-- continuation cursor. Rows written before the service always set it are stamped with the migration time, which
+-- keeps them where PostgreSQL sorted them so far (NULLs last).
+UPDATE enrollments SET enrolled_at = CURRENT_TIMESTAMP WHERE enrolled_at IS NULL;
+ALTER TABLE enrollments ALTER COLUMN enrolled_at SET NOT NULL;
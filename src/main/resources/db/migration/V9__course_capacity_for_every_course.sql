@@ -0,0 +1,11 @@
+-- Every course that has enrollments gets a capacity row; a NULL seat_limit means unlimited. Seats are then always
+-- counted on the course's row, so a limit set later starts from an exact seats_taken instead of a headcount that
+-- cannot see enrollments still in flight.
+ALTER TABLE course_capacity ALTER COLUMN seat_limit DROP NOT NULL;
+
+INSERT INTO course_capacity (course_id, seat_limit, seats_taken)
+SELECT e.course_id, NULL, SUM(CASE WHEN e.status = 'ENROLLED' THEN 1 ELSE 0 END)
+FROM enrollments e
+WHERE e.course_id IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM course_capacity c WHERE c.course_id = e.course_id)
+GROUP BY e.course_id;
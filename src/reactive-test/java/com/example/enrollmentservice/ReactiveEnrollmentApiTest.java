@@ -0,0 +1,169 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ✅ The reactive profile end to end on Netty + R2DBC, with the profile's own settings (checks hit the database)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles({"reactive", "test"})
+class ReactiveEnrollmentApiTest {
+
+    private static final long USER_ID = 70_001L;
+    private static final int ROWS = 25;
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM enrollments WHERE user_id = ?", USER_ID);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < ROWS; i++) {
+            jdbcTemplate.update("INSERT INTO enrollments (id, user_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)",
+                    700_000L + i, USER_ID, 100L + i, Timestamp.valueOf(start.plusMinutes(i)), "ENROLLED");
+        }
+    }
+
+    @Test
+    void checkAnswersFromTheDatabase() {
+        webClient.get().uri("/api/enrollments/check?userId={u}&courseId=100", USER_ID)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.enrolled").isEqualTo(true);
+
+        webClient.get().uri("/api/enrollments/check/batch?userId={u}&courseIds=101,999", USER_ID)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.enrolled.101").isEqualTo(true)
+                .jsonPath("$.enrolled.999").isEqualTo(false);
+    }
+
+    @Test
+    void checkSeesEnrollmentsWrittenAfterStartup() {
+        long courseId = 7_777L;
+        webClient.get().uri("/api/enrollments/check?userId={u}&courseId={c}", USER_ID, courseId)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.enrolled").isEqualTo(false);
+
+        // ✅ Written by a servlet node: nothing on this node is told about it
+        jdbcTemplate.update("INSERT INTO enrollments (id, user_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)",
+                700_100L, USER_ID, courseId, Timestamp.valueOf(LocalDateTime.now()), "ENROLLED");
+
+        webClient.get().uri("/api/enrollments/check?userId={u}&courseId={c}", USER_ID, courseId)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.enrolled").isEqualTo(true);
+        webClient.get().uri("/api/enrollments/check/batch?userId={u}&courseIds={c}", USER_ID, courseId)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.enrolled.7777").isEqualTo(true);
+    }
+
+    @Test
+    void cursorPagesWalkAllRowsInOrder() {
+        String cursor = null;
+        int seen = 0;
+        do {
+            String uri = "/api/enrollments/user/" + USER_ID + "/cursor?size=10" + (cursor == null ? "" : "&cursor=" + cursor);
+            CursorBody page = webClient.get().uri(uri)
+                    .header("Authorization", token())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(CursorBody.class)
+                    .returnResult().getResponseBody();
+            for (EnrollmentResponse row : page.data().content()) {
+                assertEquals(100L + seen++, row.getCourseId());
+            }
+            cursor = page.data().nextCursor();
+        } while (cursor != null);
+        assertEquals(ROWS, seen);
+    }
+
+    @Test
+    void streamsEveryRowAsNdjson() {
+        List<EnrollmentResponse> rows = webClient.get().uri("/api/enrollments/user/{u}", USER_ID)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header("Authorization", token())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(EnrollmentResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(ROWS, rows.size());
+        assertEquals(100L, rows.get(0).getCourseId());
+    }
+
+    @Test
+    void missingInvalidAndRevokedTokensAreRejected() {
+        webClient.get().uri("/api/enrollments/check?userId=1&courseId=1")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        webClient.get().uri("/api/enrollments/check?userId=1&courseId=1")
+                .header("Authorization", "Bearer not-a-jwt")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        String revoked = token();
+        tokenBlacklistService.revokeToken(revoked.substring(7));
+        webClient.get().uri("/api/enrollments/check?userId=1&courseId=1")
+                .header("Authorization", revoked)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private String token() {
+        return "Bearer " + Jwts.builder()
+                .setSubject("reactive" + System.nanoTime() + "@example.com")
+                .claim("roles", List.of("STUDENT"))
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    record CursorPageBody(List<EnrollmentResponse> content, String nextCursor) {
+    }
+
+    record CursorBody(String status, CursorPageBody data) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.enrollmentservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * ✅ {@link JwtAuthFilter} for the reactive stack: the same {@link JwtAuthenticator} checks, with the
+ * authentication carried in the Reactor context instead of a thread-local.
+ * <p>
+ * Not a bean on purpose: WebFlux would otherwise also register it as a global filter in front of the security chain.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveJwtAuthFilter implements WebFilter {
+
+    private final JwtAuthenticator authenticator;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        final String token = authHeader.substring(7);
+
+        // ✅ Verification is a short CPU-bound step (the revocation check and cache are in memory), fine on the event loop
+        JwtAuthenticator.Result result = authenticator.authenticate(token);
+        if (result.failure() != null) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        JwtAuthenticationCache.Entry authenticated = result.authenticated();
+
+        exchange.getAttributes().put(JwtAuthFilter.CLAIMS_ATTRIBUTE, authenticated.claims());
+
+        log.debug("🧠 Authenticated: {} with authorities {}",
+                authenticated.claims().getSubject(), authenticated.authentication().getAuthorities());
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticated.authentication()));
+    }
+}
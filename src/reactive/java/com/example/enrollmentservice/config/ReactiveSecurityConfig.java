@@ -0,0 +1,46 @@
+package com.example.enrollmentservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * ✅ Security of the {@code reactive} profile: the read rules of {@link SecurityConfig}, stateless, JWT only
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtAuthenticator authenticator) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(auth -> auth
+                        // ✅ Get enrollments by userId - STUDENT and INSTRUCTOR
+                        .pathMatchers(HttpMethod.GET, "/api/enrollments/user/**").hasAnyRole("STUDENT", "INSTRUCTOR")
+
+                        // ✅ Check if enrolled - both STUDENT and INSTRUCTOR
+                        .pathMatchers(HttpMethod.GET, "/api/enrollments/check").hasAnyRole("STUDENT", "INSTRUCTOR")
+                        .pathMatchers("/api/enrollments/check/batch").hasAnyRole("STUDENT", "INSTRUCTOR")
+
+                        // ✅ Health and Prometheus scrapes carry no JWT; keep /actuator off the public gateway
+                        .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
+                        // 🔐 Everything else must be authenticated
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(new ReactiveJwtAuthFilter(authenticator),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
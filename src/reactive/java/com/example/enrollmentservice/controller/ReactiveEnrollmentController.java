@@ -0,0 +1,90 @@
+package com.example.enrollmentservice.controller;
+
+import com.example.enrollmentservice.dto.ApiResponse;
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.EnrollmentCheckRequest;
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.service.ReactiveEnrollmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ Read-only enrollment API of the {@code reactive} profile; writes stay on nodes running the servlet stack
+ */
+@Tag(name = "Enrollments (reactive)", description = "Non-blocking enrollment checks and listings")
+@RestController
+@RequestMapping("/api/enrollments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveEnrollmentController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveEnrollmentService enrollmentService;
+
+    @Value("${enrollment.reactive.stream-prefetch:256}")
+    private int streamPrefetch = 256;
+
+    @Operation(
+            summary = "Stream user's enrollments",
+            description = "Streams every enrollment of the user as NDJSON, ordered by enrollment date. " +
+                    "Rows are read from the database only as fast as the client consumes them."
+    )
+    @GetMapping(value = "/user/{userId}", produces = NDJSON)
+    public Flux<EnrollmentResponse> streamUserEnrollments(@PathVariable Long userId) {
+        return enrollmentService.streamUserEnrollments(userId).limitRate(streamPrefetch);
+    }
+
+    @Operation(
+            summary = "Get user's enrollments by cursor",
+            description = "Keyset-paginated enrollments ordered by enrollment date. Pass the returned nextCursor to get the next slice."
+    )
+    @GetMapping("/user/{userId}/cursor")
+    public Mono<ApiResponse<CursorPage<EnrollmentResponse>>> getUserEnrollmentsByCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return enrollmentService.getUserEnrollmentsAfter(userId, cursor, size).map(ApiResponse::success);
+    }
+
+    @Operation(
+            summary = "Check if user is enrolled",
+            description = "Returns true/false depending on whether the user is enrolled in the given course."
+    )
+    @GetMapping("/check")
+    public Mono<Map<String, Boolean>> checkEnrollment(
+            @RequestParam Long userId,
+            @RequestParam Long courseId) {
+        return enrollmentService.isUserEnrolled(userId, courseId).map(enrolled -> Map.of("enrolled", enrolled));
+    }
+
+    @Operation(
+            summary = "Check enrollment in many courses",
+            description = "Returns a courseId → true/false map for one user and a list of courses."
+    )
+    @GetMapping("/check/batch")
+    public Mono<Map<String, Map<Long, Boolean>>> checkEnrollments(
+            @RequestParam Long userId,
+            @RequestParam List<Long> courseIds) {
+        return enrollmentService.areUserEnrolled(userId, courseIds).map(enrolled -> Map.of("enrolled", enrolled));
+    }
+
+    @Operation(
+            summary = "Check many (user, course) pairs",
+            description = "Returns a userId → courseId → true/false map for the given pairs."
+    )
+    @PostMapping("/check/batch")
+    public Mono<Map<String, Map<Long, Map<Long, Boolean>>>> checkEnrollmentPairs(
+            @RequestBody List<EnrollmentCheckRequest> checks) {
+        return enrollmentService.areUsersEnrolled(checks).map(enrolled -> Map.of("enrolled", enrolled));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.enrollmentservice.repository;
+
+import com.example.enrollmentservice.model.Enrollment;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * ✅ Non-blocking (R2DBC) counterpart of the read queries in {@link EnrollmentRepository}, used by the
+ * {@code reactive} profile. Plain SQL so the mapping does not depend on the JPA annotations of {@link Enrollment}.
+ */
+public interface ReactiveEnrollmentRepository extends R2dbcRepository<Enrollment, Long> {
+
+    @Query("SELECT EXISTS (SELECT 1 FROM enrollments WHERE user_id = :userId AND course_id = :courseId)")
+    Mono<Boolean> existsByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    @Query("SELECT course_id FROM enrollments WHERE user_id = :userId AND course_id IN (:courseIds)")
+    Flux<Long> findEnrolledCourseIds(@Param("userId") Long userId, @Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT user_id, course_id FROM enrollments WHERE user_id IN (:userIds) AND course_id IN (:courseIds)")
+    Flux<EnrollmentRepository.Membership> findMemberships(@Param("userIds") Collection<Long> userIds,
+                                                          @Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT * FROM enrollments WHERE user_id = :userId ORDER BY enrolled_at, id LIMIT :limit")
+    Flux<Enrollment> findFirstByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query("SELECT * FROM enrollments WHERE user_id = :userId " +
+            "AND (enrolled_at > :enrolledAt OR (enrolled_at = :enrolledAt AND id > :id)) " +
+            "ORDER BY enrolled_at, id LIMIT :limit")
+    Flux<Enrollment> findByUserIdAfter(@Param("userId") Long userId,
+                                       @Param("enrolledAt") LocalDateTime enrolledAt,
+                                       @Param("id") Long id,
+                                       @Param("limit") int limit);
+
+    /** Every row of a user in keyset order; rows are pulled from the driver only as fast as they are consumed */
+    @Query("SELECT * FROM enrollments WHERE user_id = :userId ORDER BY enrolled_at, id")
+    Flux<Enrollment> streamByUserId(@Param("userId") Long userId);
+}
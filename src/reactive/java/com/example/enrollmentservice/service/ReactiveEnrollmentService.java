@@ -0,0 +1,174 @@
+package com.example.enrollmentservice.service;
+
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.EnrollmentCheckRequest;
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.repository.ReactiveEnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentMetrics.Stage;
+import com.example.enrollmentservice.util.KeysetCursor;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * ✅ Non-blocking read side of {@link EnrollmentService} for the {@code reactive} profile.
+ * <p>
+ * Everything goes through {@link ReactiveEnrollmentRepository}, so no request ever parks an event-loop thread on
+ * JDBC. The {@code reactive} profile turns the {@link MembershipIndex} off: these nodes take no writes of their own,
+ * so checks only use it where it is explicitly enabled and kept current by the outbox tail.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveEnrollmentService {
+
+    private final ReactiveEnrollmentRepository enrollmentRepository;
+    private final MembershipIndex membershipIndex;
+    private final EnrollmentMetrics metrics;
+
+    @Value("${enrollment.check.max-batch-size:1000}")
+    private int maxBatchSize = 1000;
+
+    @Value("${enrollment.page.max-size:100}")
+    private int maxPageSize = 100;
+
+    /**
+     * ✅ Check if a user is enrolled in a course
+     */
+    public Mono<Boolean> isUserEnrolled(Long userId, Long courseId) {
+        if (membershipIndex.isReady()) {
+            return Mono.just(membershipIndex.contains(userId, courseId));
+        }
+        return timed(Stage.CHECK_LOOKUP, enrollmentRepository.existsByUserIdAndCourseId(userId, courseId))
+                .doOnNext(enrolled -> log.debug("🔍 Enrollment check - user: {}, course: {} → enrolled: {}",
+                        userId, courseId, enrolled));
+    }
+
+    /**
+     * ✅ Check one user against many courses with a single index probe or query
+     */
+    public Mono<Map<Long, Boolean>> areUserEnrolled(Long userId, Collection<Long> courseIds) {
+        requireBatchSize(courseIds.size());
+        if (membershipIndex.isReady() || courseIds.isEmpty()) {
+            Map<Long, Boolean> result = new LinkedHashMap<>();
+            courseIds.forEach(courseId -> result.put(courseId,
+                    membershipIndex.isReady() && membershipIndex.contains(userId, courseId)));
+            return Mono.just(result);
+        }
+        return timed(Stage.CHECK_LOOKUP, enrollmentRepository.findEnrolledCourseIds(userId, courseIds)
+                .collect(HashSet<Long>::new, Set::add))
+                .map(enrolled -> {
+                    Map<Long, Boolean> result = new LinkedHashMap<>();
+                    courseIds.forEach(courseId -> result.put(courseId, enrolled.contains(courseId)));
+                    return result;
+                });
+    }
+
+    /**
+     * ✅ Check many (user, course) pairs, answered as userId → courseId → enrolled
+     */
+    public Mono<Map<Long, Map<Long, Boolean>>> areUsersEnrolled(List<EnrollmentCheckRequest> checks) {
+        requireBatchSize(checks.size());
+        if (membershipIndex.isReady() || checks.isEmpty()) {
+            return Mono.just(answer(checks, (userId, courseId) ->
+                    membershipIndex.isReady() && membershipIndex.contains(userId, courseId)));
+        }
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        checks.forEach(check -> {
+            userIds.add(check.userId());
+            courseIds.add(check.courseId());
+        });
+        // ✅ One query over the cross product, then keep only the pairs that were asked for
+        return timed(Stage.CHECK_LOOKUP, enrollmentRepository.findMemberships(userIds, courseIds)
+                .collect(HashMap<Long, Set<Long>>::new, (enrolled, m) ->
+                        enrolled.computeIfAbsent(m.getUserId(), id -> new HashSet<>()).add(m.getCourseId())))
+                .map(enrolled -> answer(checks, (userId, courseId) ->
+                        enrolled.getOrDefault(userId, Set.of()).contains(courseId)));
+    }
+
+    /**
+     * ✅ Get a user's enrollments by keyset: same ordering and cursor format as the servlet endpoint
+     */
+    public Mono<CursorPage<EnrollmentResponse>> getUserEnrollmentsAfter(Long userId, String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxPageSize + ".");
+        }
+        KeysetCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+        // ✅ Fetch one extra row to learn whether another slice follows
+        Flux<Enrollment> rows = after == null
+                ? enrollmentRepository.findFirstByUserId(userId, size + 1)
+                : enrollmentRepository.findByUserIdAfter(userId, after.enrolledAt(), after.id(), size + 1);
+
+        return timed(Stage.LIST_QUERY, rows.collectList()).map(list -> {
+            boolean hasNext = list.size() > size;
+            List<Enrollment> slice = hasNext ? list.subList(0, size) : list;
+            String nextCursor = null;
+            if (hasNext) {
+                Enrollment last = slice.get(slice.size() - 1);
+                nextCursor = new KeysetCursor(last.getEnrolledAt(), last.getId()).encode();
+            }
+            return new CursorPage<>(slice.stream().map(ReactiveEnrollmentService::mapToResponse).toList(), nextCursor);
+        });
+    }
+
+    /**
+     * ✅ Stream all of a user's enrollments; demand from the HTTP response is propagated down to the driver
+     */
+    public Flux<EnrollmentResponse> streamUserEnrollments(Long userId) {
+        return enrollmentRepository.streamByUserId(userId)
+                .map(ReactiveEnrollmentService::mapToResponse);
+    }
+
+    private void requireBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " enrollment checks per request.");
+        }
+    }
+
+    /**
+     * ✅ Time from subscription until the database answered, failed or the client went away
+     */
+    private <T> Mono<T> timed(Stage stage, Mono<T> query) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = metrics.start();
+            return query.doFinally(signal -> metrics.stop(sample, stage));
+        });
+    }
+
+    private static Map<Long, Map<Long, Boolean>> answer(List<EnrollmentCheckRequest> checks,
+                                                        BiPredicate<Long, Long> enrolled) {
+        Map<Long, Map<Long, Boolean>> result = new LinkedHashMap<>();
+        checks.forEach(check -> result.computeIfAbsent(check.userId(), id -> new LinkedHashMap<>())
+                .put(check.courseId(), enrolled.test(check.userId(), check.courseId())));
+        return result;
+    }
+
+    private static EnrollmentResponse mapToResponse(Enrollment enrollment) {
+        return new EnrollmentResponse(
+                enrollment.getId(),
+                enrollment.getUserId(),
+                enrollment.getCourseId(),
+                enrollment.getEnrolledAt(),
+                enrollment.getStatus()
+        );
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.RosterEntry;
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Course rosters page by userId without gaps or repeats, in the full and the compact (ids only) form
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CourseRosterTest {
+
+    private static final long COURSE_ID = 9_501L;
+    private static final List<Long> USER_IDS = LongStream.rangeClosed(65_001L, 65_012L).boxed().toList();
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @BeforeEach
+    void seed() {
+        if (enrollmentRepository.countByCourseId(COURSE_ID) == 0) {
+            // ✅ Saved in reverse so the roster order comes from the query, not from insertion
+            enrollmentRepository.saveAll(LongStream.rangeClosed(0, USER_IDS.size() - 1)
+                    .mapToObj(i -> enrollment(USER_IDS.get(USER_IDS.size() - 1 - (int) i)))
+                    .toList());
+        }
+    }
+
+    @Test
+    void pagesWholeRosterInUserIdOrder() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<RosterEntry> page = enrollmentService.getCourseRoster(COURSE_ID, cursor, 5);
+            assertTrue(page.content().size() <= 5);
+            page.content().forEach(entry -> {
+                assertEquals(EnrollmentStatus.ENROLLED, entry.status());
+                seen.add(entry.userId());
+            });
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(USER_IDS, seen);
+    }
+
+    @Test
+    void compactRosterReturnsOnlyUserIds() {
+        CursorPage<Long> first = enrollmentService.getCourseRosterUserIds(COURSE_ID, null, 10);
+        assertEquals(USER_IDS.subList(0, 10), first.content());
+        assertEquals("65010", first.nextCursor());
+
+        CursorPage<Long> last = enrollmentService.getCourseRosterUserIds(COURSE_ID, first.nextCursor(), 10);
+        assertEquals(USER_IDS.subList(10, 12), last.content());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void streamsWholeRoster() {
+        List<Long> streamed = new ArrayList<>();
+        enrollmentService.streamCourseRoster(COURSE_ID, entry -> streamed.add(entry.userId()));
+        assertEquals(USER_IDS, streamed);
+    }
+
+    @Test
+    void rejectsBadCursorAndSize() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.getCourseRoster(COURSE_ID, "not-a-user", 5));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+
+        e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.getCourseRosterUserIds(COURSE_ID, null, 0));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private static Enrollment enrollment(Long userId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(userId);
+        enrollment.setCourseId(COURSE_ID);
+        enrollment.setEnrolledAt(LocalDateTime.now());
+        enrollment.setStatus(EnrollmentStatus.ENROLLED);
+        return enrollment;
+    }
+}
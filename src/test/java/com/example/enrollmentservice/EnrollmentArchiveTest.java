@@ -0,0 +1,112 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.BulkEnrollmentRequest;
+import com.example.enrollmentservice.dto.BulkEnrollmentResult;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.dto.EnrollmentResponse;
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentArchive;
+import com.example.enrollmentservice.service.EnrollmentService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Only finished enrollments past the cut-off leave the hot table, and they stay readable from the archive
+ */
+@SpringBootTest(properties = "enrollment.archive.batch-size=2")
+@ActiveProfiles("test")
+class EnrollmentArchiveTest {
+
+    @Autowired
+    private EnrollmentArchive enrollmentArchive;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private EnrollmentEventRepository eventRepository;
+
+    @Test
+    void movesOldFinishedEnrollmentsToArchive() {
+        long courseId = 9_401L;
+        LocalDateTime old = LocalDateTime.now().minusYears(2);
+        enrollmentRepository.saveAll(List.of(
+                enrollment(64_001L, courseId, old, EnrollmentStatus.COMPLETED),
+                enrollment(64_002L, courseId, old, EnrollmentStatus.CANCELLED),
+                enrollment(64_003L, courseId, old, EnrollmentStatus.COMPLETED),
+                enrollment(64_004L, courseId, old, EnrollmentStatus.ENROLLED),
+                enrollment(64_005L, courseId, LocalDateTime.now(), EnrollmentStatus.COMPLETED)));
+
+        assertTrue(enrollmentArchive.archiveEnrolledBefore(LocalDateTime.now().minusDays(30)) >= 3);
+
+        assertEquals(2, enrollmentRepository.countByCourseId(courseId));
+        assertEquals(1, enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ENROLLED));
+        assertFalse(enrollmentService.isUserEnrolled(64_001L, courseId));
+
+        List<EnrollmentResponse> history = enrollmentArchive.getCourseHistory(courseId, PageRequest.of(0, 10)).getContent();
+        assertEquals(List.of(64_001L, 64_002L, 64_003L), history.stream().map(EnrollmentResponse::getUserId).sorted().toList());
+        assertEquals(EnrollmentStatus.CANCELLED,
+                enrollmentArchive.getUserHistory(64_002L, PageRequest.of(0, 10)).getContent().get(0).getStatus());
+    }
+
+    @Test
+    void archivedEnrollmentsStillBlockReEnrolling() {
+        long courseId = 9_402L;
+        Enrollment finished = enrollmentRepository.save(
+                enrollment(64_101L, courseId, LocalDateTime.now().minusYears(2), EnrollmentStatus.COMPLETED));
+
+        enrollmentArchive.archiveEnrolledBefore(LocalDateTime.now().minusDays(30));
+        assertEquals(0, enrollmentRepository.countByCourseId(courseId));
+        assertTrue(eventRepository.findAll().stream().anyMatch(e -> e.getType() == EnrollmentEventType.ARCHIVED
+                && finished.getId().equals(e.getEnrollmentId())));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(64_101L)));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+
+        List<BulkEnrollmentResult> results = enrollmentService.bulkEnroll(
+                new BulkEnrollmentRequest(courseId, List.of(64_101L, 64_102L)));
+        assertEquals(BulkEnrollmentResult.Outcome.ALREADY_ENROLLED, results.get(0).outcome());
+        assertEquals(BulkEnrollmentResult.Outcome.ENROLLED, results.get(1).outcome());
+        assertEquals(1, enrollmentRepository.countByCourseId(courseId));
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+
+    private static Enrollment enrollment(Long userId, Long courseId, LocalDateTime enrolledAt, EnrollmentStatus status) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(userId);
+        enrollment.setCourseId(courseId);
+        enrollment.setEnrolledAt(enrolledAt);
+        enrollment.setStatus(status);
+        return enrollment;
+    }
+}
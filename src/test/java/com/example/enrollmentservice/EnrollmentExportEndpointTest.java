@@ -0,0 +1,173 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ✅ The streaming endpoints over HTTP: Accept picks NDJSON, CSV or the plain JSON list, and every streamed line is a row
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EnrollmentExportEndpointTest {
+
+    private static final long COURSE_ID = 9_701L;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @BeforeEach
+    void seedCourse() {
+        if (enrollmentRepository.countByCourseId(COURSE_ID) == 0) {
+            List<Enrollment> roster = new ArrayList<>();
+            for (long userId = 67_003L; userId >= 67_001L; userId--) {
+                Enrollment enrollment = new Enrollment();
+                enrollment.setUserId(userId);
+                enrollment.setCourseId(COURSE_ID);
+                enrollment.setEnrolledAt(LocalDateTime.now());
+                enrollment.setStatus(userId == 67_002L ? EnrollmentStatus.COMPLETED : EnrollmentStatus.ENROLLED);
+                roster.add(enrollment);
+            }
+            enrollmentRepository.saveAll(roster);
+        }
+    }
+
+    @Test
+    void ndjsonExportStreamsOneJsonObjectPerLine() throws Exception {
+        String body = stream(get("/api/enrollments"), "ADMIN", NDJSON)
+                .andExpect(content().contentType(NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> rows = ndjsonLines(body);
+        assertEquals(enrollmentRepository.count(), rows.size());
+        List<Long> courseUsers = rows.stream()
+                .filter(row -> row.get("courseId").asLong() == COURSE_ID)
+                .map(row -> row.get("userId").asLong())
+                .sorted()
+                .toList();
+        assertEquals(List.of(67_001L, 67_002L, 67_003L), courseUsers);
+        assertTrue(rows.stream().allMatch(row -> row.hasNonNull("id") && row.hasNonNull("status")));
+    }
+
+    @Test
+    void csvExportHasHeaderAndOneLinePerEnrollment() throws Exception {
+        String body = stream(get("/api/enrollments"), "ADMIN", MediaType.parseMediaType("text/csv"))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"enrollments.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals("id,userId,courseId,enrolledAt,status", lines.get(0));
+        assertEquals(enrollmentRepository.count(), lines.size() - 1);
+        assertTrue(lines.stream().skip(1).allMatch(line -> line.split(",", -1).length == 5));
+        assertTrue(lines.stream().anyMatch(line -> line.contains(",67002," + COURSE_ID + ",") && line.endsWith(",COMPLETED")));
+    }
+
+    @Test
+    void jsonAcceptStillGetsTheListEndpoint() throws Exception {
+        mockMvc.perform(get("/api/enrollments")
+                        .header(HttpHeaders.AUTHORIZATION, token("ADMIN"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void exportIsAdminOnly() throws Exception {
+        mockMvc.perform(get("/api/enrollments")
+                        .header(HttpHeaders.AUTHORIZATION, token("STUDENT"))
+                        .accept(NDJSON))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rosterStreamsCourseMembersInUserIdOrder() throws Exception {
+        String body = stream(get("/api/enrollments/course/{courseId}/roster", COURSE_ID), "INSTRUCTOR", NDJSON)
+                .andExpect(content().contentType(NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> rows = ndjsonLines(body);
+        assertEquals(List.of(67_001L, 67_002L, 67_003L), rows.stream().map(row -> row.get("userId").asLong()).toList());
+        assertEquals("COMPLETED", rows.get(1).get("status").asText());
+        assertTrue(rows.stream().allMatch(row -> row.hasNonNull("enrolledAt")));
+    }
+
+    @Test
+    void rosterWithoutNdjsonAcceptIsThePagedJson() throws Exception {
+        mockMvc.perform(get("/api/enrollments/course/{courseId}/roster", COURSE_ID)
+                        .header(HttpHeaders.AUTHORIZATION, token("INSTRUCTOR"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith(MediaType.APPLICATION_JSON_VALUE)))
+                .andExpect(jsonPath("$.data.content[0].userId").value(67_001));
+    }
+
+    private ResultActions stream(MockHttpServletRequestBuilder builder, String role, MediaType accept) throws Exception {
+        MvcResult started = mockMvc.perform(builder
+                        .header(HttpHeaders.AUTHORIZATION, token(role))
+                        .accept(accept))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    private List<JsonNode> ndjsonLines(String body) throws Exception {
+        assertTrue(body.endsWith("\n"));
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+
+    private String token(String role) {
+        return "Bearer " + Jwts.builder()
+                .setSubject("export-" + role.toLowerCase() + "@example.com")
+                .claim("roles", List.of(role))
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+}
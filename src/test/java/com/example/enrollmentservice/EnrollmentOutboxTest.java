@@ -0,0 +1,185 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.OutboxRelay;
+import com.example.enrollmentservice.service.OutboxTail;
+import com.example.enrollmentservice.service.PublishedEventListener;
+import com.example.enrollmentservice.service.SeatAllocator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Enrollment changes leave outbox events only when they commit, and the relay hands them to the sinks once
+ */
+@SpringBootTest(properties = {
+        "enrollment.outbox.relay.enabled=true",
+        "enrollment.outbox.relay.interval=PT1H",
+        "enrollment.outbox.tail.interval=PT1H"
+})
+@ActiveProfiles("test")
+class EnrollmentOutboxTest {
+
+    private static final Path EVENT_FILE = tempDir().resolve("events.ndjson");
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private SeatAllocator seatAllocator;
+
+    @Autowired
+    private EnrollmentEventRepository eventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxTail outboxTail;
+
+    @Autowired
+    private RecordingListener recordingListener;
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements PublishedEventListener {
+        final List<EnrollmentEventMessage> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onPublished(List<EnrollmentEventMessage> events) {
+            received.addAll(events);
+        }
+    }
+
+    @DynamicPropertySource
+    static void eventFile(DynamicPropertyRegistry registry) {
+        registry.add("enrollment.outbox.file", EVENT_FILE::toString);
+    }
+
+    @Test
+    void enrollAndUnenrollAreRelayedOnceInOrder() throws IOException {
+        long userId = 61_001L;
+        long courseId = 9_101L;
+        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(userId));
+        enrollmentService.unenrollUser(new EnrollmentRequest(courseId), requestFor(userId));
+
+        List<EnrollmentEvent> events = eventsOf(userId);
+        assertEquals(List.of(EnrollmentEventType.ENROLLED, EnrollmentEventType.UNENROLLED),
+                events.stream().map(EnrollmentEvent::getType).toList());
+        assertTrue(events.stream().allMatch(e -> e.getPublishedAt() == null));
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertTrue(eventsOf(userId).stream().allMatch(e -> e.getPublishedAt() != null));
+        List<String> lines = Files.readAllLines(EVENT_FILE).stream()
+                .filter(line -> line.contains("\"userId\":" + userId))
+                .toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"type\":\"ENROLLED\""));
+        assertTrue(lines.get(1).contains("\"type\":\"UNENROLLED\""));
+        assertTrue(lines.get(0).contains("\"id\":" + events.get(0).getId()));
+    }
+
+    @Test
+    void publishedEventsAreNumberedAndTailedInPublishOrder() {
+        long courseId = 9_103L;
+        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(61_003L));
+        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(61_004L));
+        outboxRelay.relay();
+        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(61_005L));
+        outboxRelay.relay();
+
+        List<EnrollmentEvent> events = eventRepository.findAll().stream()
+                .filter(e -> e.getCourseId() == courseId)
+                .sorted(Comparator.comparing(EnrollmentEvent::getPublishSeq))
+                .toList();
+        assertEquals(List.of(61_003L, 61_004L, 61_005L), events.stream().map(EnrollmentEvent::getUserId).toList());
+
+        outboxTail.poll();
+        List<Long> tailed = recordingListener.received.stream()
+                .filter(e -> e.courseId() == courseId)
+                .map(EnrollmentEventMessage::sequence)
+                .toList();
+        assertEquals(events.stream().map(EnrollmentEvent::getPublishSeq).toList(), tailed);
+        assertEquals(outboxTail.position(), eventRepository.maxPublishSeq());
+
+        // ✅ Last-Event-ID replay resumes on the sequence
+        List<Long> replayed = eventRepository.findPublishedAfter(events.get(0).getPublishSeq(), PageRequest.ofSize(10))
+                .stream()
+                .filter(e -> e.getCourseId() == courseId)
+                .map(EnrollmentEvent::getUserId)
+                .toList();
+        assertEquals(List.of(61_004L, 61_005L), replayed);
+    }
+
+    @Test
+    void rejectedEnrollmentLeavesNoEvent() {
+        long userId = 61_002L;
+        long courseId = 9_102L;
+        seatAllocator.setCapacity(courseId, 0);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(userId)));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertTrue(eventsOf(userId).isEmpty());
+    }
+
+    private List<EnrollmentEvent> eventsOf(long userId) {
+        return eventRepository.findAll().stream()
+                .filter(e -> e.getUserId() == userId)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("enrollment-outbox");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.ReplicaRoutingDataSource;
+import com.example.enrollmentservice.dto.EnrollmentEventMessage;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.service.EnrollmentReadCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnrollmentReadCacheTest {
+
+    private final EnrollmentReadCache cache = new EnrollmentReadCache(new SimpleMeterRegistry(), true, 1000, Duration.ofMinutes(5), Duration.ofSeconds(10));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    @Test
+    void testChange_shouldOnlyInvalidateItsUserAndCourse() {
+        cache.user(1L, "page-0", this::load);
+        cache.user(2L, "page-0", this::load);
+        cache.course(10L, "count", this::load);
+        cache.course(20L, "count", this::load);
+        assertEquals(4, loads.get());
+
+        cache.user(1L, "page-0", this::load);
+        cache.course(10L, "count", this::load);
+        assertEquals(4, loads.get());
+
+        cache.changed(100L, 1L, 10L);
+
+        assertEquals(5, (int) cache.user(1L, "page-0", this::load));
+        assertEquals(6, (int) cache.course(10L, "count", this::load));
+        assertEquals(2, (int) cache.user(2L, "page-0", this::load));
+        assertEquals(4, (int) cache.course(20L, "count", this::load));
+    }
+
+    @Test
+    void testChangeInTransaction_shouldApplyOnlyAfterCommit() {
+        cache.byId(100L, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.changed(100L, 1L, 10L);
+            assertEquals(1, (int) cache.byId(100L, this::load));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(2, (int) cache.byId(100L, this::load));
+    }
+
+    @Test
+    void testLoadRacingWithCommit_shouldNotBeServedAfterwards() {
+        // ✅ The write commits while the read is still loading the old state
+        Integer stale = cache.user(1L, "page-0", () -> {
+            Integer value = load();
+            cache.changed(null, 1L, 10L);
+            return value;
+        });
+
+        assertEquals(1, stale);
+        assertEquals(2, (int) cache.user(1L, "page-0", this::load));
+    }
+
+    @Test
+    void testFailedLoad_shouldNotBeCached() {
+        assertThrows(IllegalStateException.class, () -> cache.byId(7L, () -> {
+            throw new IllegalStateException("Enrollment not found");
+        }));
+        assertEquals(1, (int) cache.byId(7L, this::load));
+    }
+
+    @Test
+    void testPublishedChangeFromOtherNode_shouldInvalidateItsUserAndCourse() {
+        cache.user(1L, "page-0", this::load);
+        cache.course(10L, "count", this::load);
+        cache.byId(100L, this::load);
+
+        cache.onPublished(List.of(new EnrollmentEventMessage(1L, 1L, EnrollmentEventType.ENROLLED, 100L, 1L, 10L,
+                EnrollmentStatus.ENROLLED, null, LocalDateTime.now())));
+
+        assertEquals(4, (int) cache.user(1L, "page-0", this::load));
+        assertEquals(5, (int) cache.course(10L, "count", this::load));
+        assertEquals(6, (int) cache.byId(100L, this::load));
+    }
+
+    @Test
+    void testReloadShortlyAfterChange_shouldReadFromPrimary() {
+        assertFalse(cache.user(1L, "page-0", ReplicaRoutingDataSource::isPrimaryOnly));
+
+        cache.changed(100L, 1L, 10L);
+
+        assertTrue(cache.user(1L, "page-0", ReplicaRoutingDataSource::isPrimaryOnly));
+        assertTrue(cache.byId(100L, ReplicaRoutingDataSource::isPrimaryOnly));
+        assertFalse(cache.user(2L, "page-0", ReplicaRoutingDataSource::isPrimaryOnly));
+        assertFalse(ReplicaRoutingDataSource.isPrimaryOnly());
+    }
+
+    @Test
+    void testReloadAfterPrimaryWindow_shouldUseReplicaAgain() {
+        EnrollmentReadCache noWindow = new EnrollmentReadCache(new SimpleMeterRegistry(), true, 1000,
+                Duration.ofMinutes(5), Duration.ZERO);
+
+        noWindow.changed(100L, 1L, 10L);
+
+        assertFalse(noWindow.user(1L, "page-0", ReplicaRoutingDataSource::isPrimaryOnly));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs each hot repository query, captures the SQL Hibernate generated for it and checks with EXPLAIN
+ * that the database answers it from an index created by the Flyway migrations rather than a table scan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.example.enrollmentservice.RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class EnrollmentRepositoryIndexTest {
+
+    private static final String USER_COURSE = "uk_enrollments_user_course";
+    private static final String USER_ENROLLED_AT = "idx_enrollments_user_enrolled_at";
+    private static final String COURSE_USER = "idx_enrollments_course_user";
+    private static final String COURSE_STATUS_ID = "idx_enrollments_course_status_id";
+    private static final String STATUS_ENROLLED_AT = "idx_enrollments_status_enrolled_at";
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    private String planOf(Consumer<EnrollmentRepository> query) {
+        query.accept(enrollmentRepository);
+        List<String> selects = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "query issued no SELECT");
+        String sql = selects.get(selects.size() - 1);
+
+        return jdbcTemplate.execute("EXPLAIN " + sql, (java.sql.PreparedStatement ps) -> {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        });
+    }
+
+    private void assertUsesIndex(Consumer<EnrollmentRepository> query, String... acceptedIndexes) {
+        String plan = planOf(query);
+        assertFalse(plan.contains("tableScan"), () -> "table scan in plan:\n" + plan);
+        assertTrue(Arrays.stream(acceptedIndexes).anyMatch(plan.toLowerCase()::contains),
+                () -> "none of " + Arrays.toString(acceptedIndexes) + " used in plan:\n" + plan);
+    }
+
+    @Test
+    void uniqueIndex_rejectsDuplicateEnrollment() {
+        enrollmentRepository.saveAndFlush(enrollment(1L, 2L));
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> enrollmentRepository.saveAndFlush(enrollment(1L, 2L)));
+        assertTrue(e.getMostSpecificCause().getMessage().toLowerCase().contains(USER_COURSE));
+    }
+
+    @Test
+    void enrolledAt_isRequired() {
+        Enrollment enrollment = enrollment(1L, 3L);
+        enrollment.setEnrolledAt(null);
+
+        // ✅ A row without enrolledAt could never be handed out as a keyset cursor
+        assertThrows(DataIntegrityViolationException.class, () -> enrollmentRepository.saveAndFlush(enrollment));
+    }
+
+    @Test
+    void keysetCursor_roundTripsAndRefusesMissingParts() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 9, 1, 8, 30), 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> new KeysetCursor(null, 42L));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("bnVsbHw0Mg"));
+    }
+
+    private static Enrollment enrollment(Long userId, Long courseId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(userId);
+        enrollment.setCourseId(courseId);
+        enrollment.setEnrolledAt(LocalDateTime.now());
+        enrollment.setStatus(EnrollmentStatus.ENROLLED);
+        return enrollment;
+    }
+
+    @Test
+    void findByUserIdAndCourseId_usesUniqueIndex() {
+        assertUsesIndex(r -> r.findByUserIdAndCourseId(1L, 2L), USER_COURSE);
+    }
+
+    // ✅ Both indexes lead with user_id, the planner may pick either for user-only predicates
+
+    @Test
+    void findByUserId_usesUserIndex() {
+        assertUsesIndex(r -> r.findByUserId(1L, PageRequest.of(0, 5)).getContent(), USER_ENROLLED_AT, USER_COURSE);
+    }
+
+    @Test
+    void countByUserId_usesUserIndex() {
+        assertUsesIndex(r -> r.countByUserId(1L), USER_ENROLLED_AT, USER_COURSE);
+    }
+
+    @Test
+    void keysetQueries_useUserIndex() {
+        assertUsesIndex(r -> r.findByUserIdOrderByEnrolledAtAscIdAsc(1L, PageRequest.ofSize(5)),
+                USER_ENROLLED_AT, USER_COURSE);
+        assertUsesIndex(r -> r.findByUserIdAfter(1L, LocalDateTime.now(), 1L, PageRequest.ofSize(5)),
+                USER_ENROLLED_AT, USER_COURSE);
+    }
+
+    @Test
+    void courseQueries_useCourseIndex() {
+        assertUsesIndex(r -> r.countByCourseId(2L), COURSE_USER);
+        assertUsesIndex(r -> r.findEnrolledUserIds(2L, List.of(1L, 3L)), COURSE_USER, USER_COURSE);
+    }
+
+    @Test
+    void rosterQueries_useCourseIndex() {
+        assertUsesIndex(r -> r.findRoster(2L, 0L, PageRequest.ofSize(5)), COURSE_USER);
+        assertUsesIndex(r -> r.findRosterUserIds(2L, 0L, PageRequest.ofSize(5)), COURSE_USER);
+    }
+
+    @Test
+    void statusTransitionChunk_usesCourseStatusIndex() {
+        assertUsesIndex(r -> r.lockChunk(2L, EnrollmentStatus.ENROLLED.name(), 0L, 100), COURSE_STATUS_ID);
+    }
+
+    @Test
+    void archiveScan_usesStatusIndex() {
+        assertUsesIndex(r -> r.lockFinishedBefore(List.of(EnrollmentStatus.COMPLETED, EnrollmentStatus.CANCELLED),
+                LocalDateTime.now(), PageRequest.ofSize(100)), STATUS_ENROLLED_AT);
+    }
+
+    @Test
+    void batchChecks_useUniqueIndex() {
+        assertUsesIndex(r -> r.findEnrolledCourseIds(1L, List.of(2L, 3L)), USER_COURSE);
+        assertUsesIndex(r -> r.findMemberships(List.of(1L, 2L), List.of(2L, 3L)), USER_COURSE);
+    }
+}
@@ -1,22 +1,44 @@
 package com.example.enrollmentservice;
 
+import com.example.enrollmentservice.dto.BulkEnrollmentRequest;
+import com.example.enrollmentservice.dto.BulkEnrollmentResult;
+import com.example.enrollmentservice.dto.CursorPage;
+import com.example.enrollmentservice.dto.EnrollmentCheckRequest;
 import com.example.enrollmentservice.dto.EnrollmentRequest;
 import com.example.enrollmentservice.dto.EnrollmentResponse;
 import com.example.enrollmentservice.model.Enrollment;
 import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.ArchivedEnrollmentRepository;
 import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentCounters;
 import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.EnrollmentMetrics;
+import com.example.enrollmentservice.service.EnrollmentOutbox;
+import com.example.enrollmentservice.service.EnrollmentReadCache;
+import com.example.enrollmentservice.service.EnrollmentWriteBatcher;
+import com.example.enrollmentservice.service.MembershipIndex;
+import com.example.enrollmentservice.service.SeatAllocator;
+import com.example.enrollmentservice.service.UserIdResolver;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
-import org.springframework.http.*;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,7 +50,39 @@ public class EnrollmentServiceTest {
     private EnrollmentRepository enrollmentRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private ArchivedEnrollmentRepository archiveRepository;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Mock
+    private MembershipIndex membershipIndex;
+
+    @Mock
+    private EnrollmentCounters enrollmentCounters;
+
+    @Mock
+    private SeatAllocator seatAllocator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private EnrollmentMetrics metrics = new EnrollmentMetrics(meterRegistry);
+
+    @Mock
+    private EnrollmentOutbox outbox;
+
+    @Mock
+    private EnrollmentWriteBatcher writeBatcher;
+
+    @Spy
+    private EnrollmentReadCache readCache = new EnrollmentReadCache(meterRegistry, false, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @Mock
     private HttpServletRequest httpRequest;
@@ -39,22 +93,16 @@ public class EnrollmentServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
     void testEnrollUser_successfulEnrollment() {
         EnrollmentRequest request = new EnrollmentRequest(2L); // only courseId
 
-        // Simulate userId from user service
-        when(httpRequest.getHeader("Authorization")).thenReturn("Bearer test-token");
-        when(restTemplate.exchange(
-                eq("http://userservice/api/users/email"),
-                eq(HttpMethod.GET),
-                any(HttpEntity.class),
-                eq(Long.class)
-        )).thenReturn(new ResponseEntity<>(1L, HttpStatus.OK));
-
-        when(enrollmentRepository.findByUserIdAndCourseId(1L, 2L)).thenReturn(Optional.empty());
+        // Simulate userId resolved from the token
+        when(userIdResolver.resolve(httpRequest)).thenReturn(1L);
 
         Enrollment saved = new Enrollment();
         saved.setUserId(1L);
@@ -62,28 +110,62 @@ public class EnrollmentServiceTest {
         saved.setEnrolledAt(LocalDateTime.now());
         saved.setStatus(EnrollmentStatus.ENROLLED);
 
-        when(enrollmentRepository.save(any(Enrollment.class))).thenReturn(saved);
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenReturn(saved);
 
         EnrollmentResponse result = enrollmentService.enrollUser(request, httpRequest);
 
         assertNotNull(result);
         assertEquals(1L, result.getUserId());
         assertEquals(2L, result.getCourseId());
+        verify(seatAllocator).takeSeats(2L, 1);
+        verify(outbox).enrolled(saved);
     }
 
     @Test
     void testEnrollUser_alreadyEnrolled_shouldThrowException() {
         EnrollmentRequest request = new EnrollmentRequest(2L);
 
-        when(httpRequest.getHeader("Authorization")).thenReturn("Bearer token");
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class)))
-                .thenReturn(new ResponseEntity<>(1L, HttpStatus.OK));
+        when(userIdResolver.resolve(httpRequest)).thenReturn(1L);
 
-        Enrollment existing = new Enrollment();
-        when(enrollmentRepository.findByUserIdAndCourseId(1L, 2L)).thenReturn(Optional.of(existing));
+        // Simulate the unique (user_id, course_id) index rejecting the insert
+        when(enrollmentRepository.saveAndFlush(any(Enrollment.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate", new ConstraintViolationException("duplicate", null, "UK_ENROLLMENTS_USER_COURSE")));
 
-        assertThrows(RuntimeException.class, () -> enrollmentService.enrollUser(request, httpRequest));
-        verify(enrollmentRepository, never()).save(any());
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.enrollUser(request, httpRequest));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(enrollmentRepository, never()).findByUserIdAndCourseId(any(), any());
+        assertEquals(1.0, meterRegistry.get("enrollment.failures")
+                .tags("operation", "enroll", "status", "409").counter().count());
+        assertEquals(1L, meterRegistry.get("enrollment.stage")
+                .tags("operation", "enroll", "stage", "write").timer().count());
+    }
+
+    @Test
+    void testEnrollUser_userServiceFailure_shouldCountOneEnrollFailureTaggedWithItsStage() {
+        EnrollmentRequest request = new EnrollmentRequest(2L);
+
+        // ✅ The resolver times its remote call as a stage of its own, nested inside enroll / resolve_user
+        when(userIdResolver.resolve(httpRequest)).thenAnswer(invocation ->
+                metrics.stage(EnrollmentMetrics.Stage.USER_SERVICE_CALL, () -> {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User service unavailable.");
+                }));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.enrollUser(request, httpRequest));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals(1.0, meterRegistry.get("enrollment.failures")
+                .tags("operation", "enroll", "stage", "user_service_call", "status", "503").counter().count());
+        assertEquals(1, meterRegistry.find("enrollment.failures").counters().size());
+
+        // ✅ The next failure on this thread is a new one, started in the outer stage itself
+        doThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization token is missing."))
+                .when(userIdResolver).resolve(httpRequest);
+        assertThrows(ResponseStatusException.class, () -> enrollmentService.enrollUser(request, httpRequest));
+        assertEquals(1.0, meterRegistry.get("enrollment.failures")
+                .tags("operation", "enroll", "stage", "enroll_resolve_user", "status", "401").counter().count());
+        assertEquals(1.0, meterRegistry.get("enrollment.failures")
+                .tags("operation", "enroll", "status", "503").counter().count());
     }
 
     @Test
@@ -100,6 +182,124 @@ public class EnrollmentServiceTest {
         assertFalse(enrolled);
     }
 
+    @Test
+    void testIsUserEnrolled_indexReady_shouldNotQueryRepository() {
+        when(membershipIndex.isReady()).thenReturn(true);
+        when(membershipIndex.contains(1L, 2L)).thenReturn(true);
+
+        assertTrue(enrollmentService.isUserEnrolled(1L, 2L));
+        verify(enrollmentRepository, never()).findByUserIdAndCourseId(any(), any());
+    }
+
+    @Test
+    void testAreUserEnrolled_shouldUseSingleQuery() {
+        when(enrollmentRepository.findEnrolledCourseIds(1L, List.of(2L, 3L, 4L))).thenReturn(List.of(3L));
+
+        Map<Long, Boolean> result = enrollmentService.areUserEnrolled(1L, List.of(2L, 3L, 4L));
+
+        assertEquals(Map.of(2L, false, 3L, true, 4L, false), result);
+        verify(enrollmentRepository, never()).findByUserIdAndCourseId(any(), any());
+    }
+
+    @Test
+    void testAreUsersEnrolled_shouldOnlyReportRequestedPairs() {
+        EnrollmentRepository.Membership membership = mock(EnrollmentRepository.Membership.class);
+        when(membership.getUserId()).thenReturn(1L);
+        when(membership.getCourseId()).thenReturn(3L);
+        EnrollmentRepository.Membership unrequested = mock(EnrollmentRepository.Membership.class);
+        when(unrequested.getUserId()).thenReturn(2L);
+        when(unrequested.getCourseId()).thenReturn(3L);
+        when(enrollmentRepository.findMemberships(anyCollection(), anyCollection()))
+                .thenReturn(List.of(membership, unrequested));
+
+        Map<Long, Map<Long, Boolean>> result = enrollmentService.areUsersEnrolled(List.of(
+                new EnrollmentCheckRequest(1L, 3L),
+                new EnrollmentCheckRequest(2L, 4L)));
+
+        assertEquals(Map.of(1L, Map.of(3L, true), 2L, Map.of(4L, false)), result);
+    }
+
+    @Test
+    void testBulkEnroll_shouldReportOutcomePerUser() {
+        when(enrollmentRepository.findEnrolledUserIds(eq(2L), anyCollection())).thenReturn(List.of(11L));
+
+        List<BulkEnrollmentResult> results = enrollmentService.bulkEnroll(
+                new BulkEnrollmentRequest(2L, List.of(10L, 11L, 10L, 12L)));
+
+        assertEquals(List.of(
+                BulkEnrollmentResult.Outcome.ENROLLED,
+                BulkEnrollmentResult.Outcome.ALREADY_ENROLLED,
+                BulkEnrollmentResult.Outcome.DUPLICATE_IN_REQUEST,
+                BulkEnrollmentResult.Outcome.ENROLLED
+        ), results.stream().map(BulkEnrollmentResult::outcome).toList());
+        verify(enrollmentRepository).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void testBulkEnroll_nullUserId_shouldBeBadRequest() {
+        List<Long> userIds = new ArrayList<>(List.of(10L));
+        userIds.add(null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.bulkEnroll(new BulkEnrollmentRequest(2L, userIds)));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verify(enrollmentRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testBulkEnroll_concurrentSingleEnrollment_shouldAskForRetry() {
+        // Simulate a single enrollment committing one of the pairs between the duplicate check and the flush
+        doThrow(new ConstraintViolationException("duplicate", null, "UK_ENROLLMENTS_USER_COURSE"))
+                .when(entityManager).flush();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.bulkEnroll(new BulkEnrollmentRequest(2L, List.of(10L, 11L))));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        verify(seatAllocator, never()).takeSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    void testGetUserEnrollmentsAfter_shouldReturnCursorToNextSlice() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Enrollment> rows = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Enrollment e = new Enrollment();
+            e.setId(id);
+            e.setUserId(1L);
+            e.setEnrolledAt(now.plusMinutes(id));
+            rows.add(e);
+        }
+        when(enrollmentRepository.findByUserIdOrderByEnrolledAtAscIdAsc(eq(1L), any())).thenReturn(rows);
+        when(enrollmentRepository.findByUserIdAfter(eq(1L), eq(now.plusMinutes(2)), eq(2L), any()))
+                .thenReturn(rows.subList(2, 3));
+
+        CursorPage<EnrollmentResponse> first = enrollmentService.getUserEnrollmentsAfter(1L, null, 2);
+        assertEquals(2, first.content().size());
+        assertNotNull(first.nextCursor());
+
+        CursorPage<EnrollmentResponse> second = enrollmentService.getUserEnrollmentsAfter(1L, first.nextCursor(), 2);
+        assertEquals(3L, second.content().get(0).getId());
+        assertNull(second.nextCursor());
+        verify(enrollmentRepository, never()).findByUserId(any(), any());
+    }
+
+    @Test
+    void testCountCourseEnrollments_countersReady_shouldNotQueryRepository() {
+        when(enrollmentCounters.isReady()).thenReturn(true);
+        when(enrollmentCounters.courseCount(2L, EnrollmentStatus.ENROLLED)).thenReturn(30L);
+
+        assertEquals(30L, enrollmentService.countCourseEnrollments(2L, EnrollmentStatus.ENROLLED));
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    @Test
+    void testCountUserEnrollments_countersNotReady_shouldCountInDatabase() {
+        when(enrollmentRepository.countByUserId(1L)).thenReturn(4L);
+
+        assertEquals(4L, enrollmentService.countUserEnrollments(1L, null));
+    }
+
     @Test
     void testGetAllEnrollments() {
         Enrollment e1 = new Enrollment();
@@ -0,0 +1,137 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.ArchivedEnrollmentRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentCounters;
+import com.example.enrollmentservice.service.EnrollmentOutbox;
+import com.example.enrollmentservice.service.EnrollmentReadCache;
+import com.example.enrollmentservice.service.EnrollmentWriteBatcher;
+import com.example.enrollmentservice.service.MembershipIndex;
+import com.example.enrollmentservice.service.SeatAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EnrollmentWriteBatcherTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ArchivedEnrollmentRepository archiveRepository;
+
+    @Mock
+    private SeatAllocator seatAllocator;
+
+    @Mock
+    private MembershipIndex membershipIndex;
+
+    @Mock
+    private EnrollmentCounters enrollmentCounters;
+
+    @Mock
+    private EnrollmentOutbox outbox;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EnrollmentWriteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(seatAllocator.tryTakeSeats(anyLong(), anyInt())).thenReturn(true);
+        batcher = new EnrollmentWriteBatcher(enrollmentRepository, archiveRepository, seatAllocator, membershipIndex,
+                enrollmentCounters, outbox,
+                new EnrollmentReadCache(new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(1), Duration.ofSeconds(10)),
+                entityManager, transactionTemplate, new SimpleMeterRegistry(), true, 1, 10, Duration.ZERO,
+                Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    void testErrorInFlush_shouldHandCallersBackAndKeepFlushing() {
+        when(enrollmentRepository.findMemberships(any(), any()))
+                .thenThrow(new AssertionError("boom"))
+                .thenReturn(List.of());
+
+        assertNull(batcher.enroll(enrollment(1L)));
+
+        Enrollment saved = batcher.enroll(enrollment(2L));
+        assertNotNull(saved);
+        assertEquals(2L, saved.getUserId());
+    }
+
+    @Test
+    void testStuckFlush_shouldHandBackQueuedRowAfterMaxWait() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(enrollmentRepository.findMemberships(any(), any())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of();
+        });
+        CompletableFuture<Enrollment> taken = CompletableFuture.supplyAsync(() -> batcher.enroll(enrollment(3L)));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        Enrollment queued = enrollment(4L);
+
+        // ✅ Still queued behind the stuck batch: the caller takes it back and writes it directly
+        long start = System.nanoTime();
+        assertNull(batcher.enroll(queued));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        // ✅ The caller's own entity is untouched, ready for the regular insert
+        assertNull(queued.getId());
+
+        // ✅ Already taken by the flusher: its caller waits for the batch rather than racing it with a direct insert
+        Thread.sleep(300);
+        assertFalse(taken.isDone());
+        release.countDown();
+        Enrollment saved = taken.get(5, TimeUnit.SECONDS);
+        assertNotNull(saved);
+        assertEquals(3L, saved.getUserId());
+        verify(enrollmentRepository, times(1)).saveAll(argThat(rows ->
+                rows instanceof List<?> list && list.size() == 1 && ((Enrollment) list.get(0)).getUserId() == 3L));
+    }
+
+    private static Enrollment enrollment(Long userId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(userId);
+        enrollment.setCourseId(10L);
+        enrollment.setEnrolledAt(LocalDateTime.now());
+        enrollment.setStatus(EnrollmentStatus.ENROLLED);
+        return enrollment;
+    }
+}
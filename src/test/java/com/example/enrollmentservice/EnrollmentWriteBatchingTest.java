@@ -0,0 +1,126 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.SeatAllocator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Write coalescing: concurrent enrollments share commits, with the same duplicate and seat-limit answers
+ */
+@SpringBootTest(properties = {
+        "enrollment.write-coalescing.enabled=true",
+        "enrollment.write-coalescing.shards=2",
+        "enrollment.write-coalescing.max-delay=PT0.05S",
+        "enrollment.capacity.full-hint=PT0S"
+})
+@ActiveProfiles("test")
+class EnrollmentWriteBatchingTest {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SeatAllocator seatAllocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentEnrollmentsAreCommittedInBatches() throws Exception {
+        AtomicInteger enrolled = new AtomicInteger();
+        race(64, i -> 90_000L + i, i -> 9_201L + i % 4, enrolled, new AtomicInteger());
+
+        assertEquals(64, enrolled.get());
+        for (long course = 9_201L; course < 9_205L; course++) {
+            assertEquals(16, enrollmentRepository.countByCourseIdAndStatus(course, EnrollmentStatus.ENROLLED));
+        }
+        assertTrue(meterRegistry.get("enrollment.write.batch.size").summary().max() > 1);
+    }
+
+    @Test
+    void duplicatesAreRejectedInFlightAndAgainstTheDatabase() throws Exception {
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        race(8, i -> 90_100L, i -> 9_211L, enrolled, rejected);
+
+        assertEquals(1, enrolled.get());
+        assertEquals(7, rejected.get());
+
+        ResponseStatusException again = assertThrows(ResponseStatusException.class,
+                () -> enrollmentService.enrollUser(new EnrollmentRequest(9_211L), requestFor(90_100L)));
+        assertEquals(HttpStatus.CONFLICT, again.getStatusCode());
+    }
+
+    @Test
+    void seatLimitStillHolds() throws Exception {
+        long courseId = 9_221L;
+        seatAllocator.setCapacity(courseId, 5);
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        race(20, i -> 90_200L + i, i -> courseId, enrolled, rejected);
+
+        assertEquals(5, enrolled.get());
+        assertEquals(15, rejected.get());
+        assertEquals(5, seatAllocator.getCapacity(courseId).seatsTaken());
+    }
+
+    private void race(int requests, LongUnaryOperator userId, LongUnaryOperator courseId,
+                      AtomicInteger enrolled, AtomicInteger rejected) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long user = userId.applyAsLong(i);
+            long course = courseId.applyAsLong(i);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    enrollmentService.enrollUser(new EnrollmentRequest(course), requestFor(user));
+                    enrolled.incrementAndGet();
+                } catch (ResponseStatusException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+}
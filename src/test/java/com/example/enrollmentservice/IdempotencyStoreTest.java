@@ -0,0 +1,124 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.service.IdempotencyStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+
+    private static MockHttpServletRequest requestFor(String subject) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        Claims claims = Jwts.claims().setSubject(subject);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+
+    @Test
+    void testRetryWithSameKey_shouldReplayWithoutRunningAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        EnrollmentRequest body = new EnrollmentRequest(7L);
+
+        ResponseEntity<String> first = store.execute("k1", requestFor("alice"), body,
+                () -> ResponseEntity.ok("enrolled #" + runs.incrementAndGet()));
+        ResponseEntity<String> retry = store.execute("k1", requestFor("alice"), body,
+                () -> ResponseEntity.ok("enrolled #" + runs.incrementAndGet()));
+
+        assertEquals(1, runs.get());
+        assertEquals("enrolled #1", retry.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testWithoutKey_shouldRunEveryTime() {
+        AtomicInteger runs = new AtomicInteger();
+        store.execute(null, requestFor("alice"), null, () -> ResponseEntity.ok(runs.incrementAndGet()));
+        store.execute(null, requestFor("alice"), null, () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void testKeysAreScopedPerCaller() {
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("shared", requestFor("alice"), null, () -> ResponseEntity.ok(runs.incrementAndGet()));
+        store.execute("shared", requestFor("bob"), null, () -> ResponseEntity.ok(runs.incrementAndGet()));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void testKeyReusedWithDifferentBody_shouldBeRejected() {
+        store.execute("k2", requestFor("alice"), new EnrollmentRequest(1L), () -> ResponseEntity.ok("one"));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () ->
+                store.execute("k2", requestFor("alice"), new EnrollmentRequest(2L), () -> ResponseEntity.ok("two")));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+    }
+
+    @Test
+    void testClientErrorIsReplayed_serverErrorIsRetried() {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () ->
+                    store.execute("k3", requestFor("alice"), null, () -> {
+                        runs.incrementAndGet();
+                        throw new ResponseStatusException(HttpStatus.CONFLICT, "Already enrolled.");
+                    }));
+            assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        }
+        assertEquals(1, runs.get());
+
+        assertThrows(ResponseStatusException.class, () -> store.execute("k4", requestFor("alice"), null, () -> {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "User service unavailable.");
+        }));
+        assertEquals("ok", store.execute("k4", requestFor("alice"), null, () -> ResponseEntity.ok("ok")).getBody());
+    }
+
+    @Test
+    void testConcurrentDuplicates_shouldRunOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<Integer>>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return store.execute("k5", requestFor("alice"), null, () -> {
+                    sleep(100);
+                    return ResponseEntity.ok(runs.incrementAndGet());
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<ResponseEntity<Integer>> future : futures) {
+            assertEquals(1, future.get(10, TimeUnit.SECONDS).getBody());
+        }
+        pool.shutdown();
+        assertEquals(1, runs.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
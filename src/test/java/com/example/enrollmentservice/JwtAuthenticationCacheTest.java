@@ -0,0 +1,151 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.config.JwtAuthenticationCache;
+import com.example.enrollmentservice.config.JwtAuthenticator;
+import com.example.enrollmentservice.service.EnrollmentMetrics;
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import com.example.enrollmentservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationCacheTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenBlacklistService tokenBlacklistService;
+
+    private JwtAuthenticationCache cache;
+
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken("user@example.com", null);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new JwtAuthenticationCache(new SimpleMeterRegistry(), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Claims claims(long expiresInMillis) {
+        return Jwts.claims()
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis));
+    }
+
+    @Test
+    void testGet_shouldReturnCachedEntryBeforeExp() {
+        cache.put("token", claims(TimeUnit.HOURS.toMillis(1)), authentication);
+
+        JwtAuthenticationCache.Entry entry = cache.get("token");
+        assertNotNull(entry);
+        assertEquals("user@example.com", entry.claims().getSubject());
+        assertSame(authentication, entry.authentication());
+    }
+
+    @Test
+    void testGet_shouldExpireAtTokenExp() throws InterruptedException {
+        // ✅ exp has second precision, so the token expires at the next whole second at the latest
+        cache.put("token", claims(50), authentication);
+
+        Thread.sleep(1_100);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_shouldNotCacheTokenWithoutExp() {
+        Claims claims = Jwts.claims().setSubject("user@example.com");
+
+        JwtAuthenticationCache.Entry entry = cache.put("token", claims, authentication);
+
+        assertNotNull(entry);
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void testPut_shouldStayWithinMaxSize() {
+        for (int i = 0; i < 50; i++) {
+            cache.put("token-" + i, claims(TimeUnit.HOURS.toMillis(1)), authentication);
+        }
+
+        assertTrue(cache.size() <= 3);
+    }
+
+    @Test
+    void testPut_shouldCacheReadOnlyCopyOfClaims() {
+        Claims claims = claims(TimeUnit.HOURS.toMillis(1));
+        claims.put("roles", new ArrayList<>(List.of("STUDENT")));
+
+        Claims cached = cache.put("token", claims, authentication).claims();
+        // ✅ Later changes to the parsed claims do not reach the cache either
+        claims.setSubject("someone-else@example.com");
+
+        assertEquals("user@example.com", cached.getSubject());
+        assertThrows(UnsupportedOperationException.class, () -> cached.setSubject("admin@example.com"));
+        assertThrows(UnsupportedOperationException.class, () -> cached.put("roles", List.of("ADMIN")));
+        assertThrows(UnsupportedOperationException.class, () -> cached.remove("roles"));
+        List<?> roles = cached.get("roles", List.class);
+        assertThrows(UnsupportedOperationException.class, roles::clear);
+        cached.getExpiration().setTime(Long.MAX_VALUE);
+        assertNotEquals(Long.MAX_VALUE, cached.getExpiration().getTime());
+        assertSame(cached, cache.get("token").claims());
+        assertEquals(List.of("STUDENT"), cache.get("token").claims().get("roles", List.class));
+    }
+
+    @Test
+    void testFilter_shouldRejectRevokedTokenEvenWhenCached() throws Exception {
+        Claims claims = claims(TimeUnit.HOURS.toMillis(1));
+        claims.put("roles", List.of("STUDENT"));
+        when(jwtUtil.extractAllClaims("token")).thenReturn(claims);
+        JwtAuthFilter filter = new JwtAuthFilter(new JwtAuthenticator(jwtUtil, tokenBlacklistService, cache,
+                new EnrollmentMetrics(new SimpleMeterRegistry())));
+
+        MockHttpServletResponse first = filter(filter);
+        MockHttpServletResponse second = filter(filter);
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        verify(jwtUtil, times(1)).extractAllClaims("token");
+
+        when(tokenBlacklistService.isTokenRevoked("token")).thenReturn(true);
+        SecurityContextHolder.clearContext();
+
+        MockHttpServletResponse revoked = filter(filter);
+        assertEquals(401, revoked.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletResponse filter(JwtAuthFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
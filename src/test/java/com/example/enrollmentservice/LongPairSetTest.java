@@ -0,0 +1,69 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.util.LongPairSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongPairSetTest {
+
+    @Test
+    void testAddContainsRemove() {
+        LongPairSet set = new LongPairSet(4);
+
+        assertTrue(set.add(1L, 2L));
+        assertFalse(set.add(1L, 2L));
+        assertTrue(set.contains(1L, 2L));
+        assertFalse(set.contains(2L, 1L));
+
+        assertTrue(set.remove(1L, 2L));
+        assertFalse(set.remove(1L, 2L));
+        assertFalse(set.contains(1L, 2L));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void testRandomOperations_shouldMatchHashSet() {
+        LongPairSet set = new LongPairSet(8);
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long user = random.nextInt(2_000);
+            long course = random.nextInt(50);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(user + ":" + course), set.remove(user, course));
+            } else {
+                assertEquals(expected.add(user + ":" + course), set.add(user, course));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long user = 0; user < 2_000; user++) {
+            for (long course = 0; course < 50; course++) {
+                assertEquals(expected.contains(user + ":" + course), set.contains(user, course));
+            }
+        }
+    }
+
+    @Test
+    void testMemory_forMillionsOfEnrollments() {
+        LongPairSet set = new LongPairSet(64);
+        int enrollments = 2_000_000;
+        for (long i = 0; i < enrollments; i++) {
+            set.add(i / 8, i % 500);
+        }
+
+        double bytesPerEnrollment = (double) set.memoryBytes() / enrollments;
+
+        assertEquals(enrollments, set.size());
+        // ✅ 16 bytes per slot at a load factor between 0.3 and 0.6
+        assertTrue(bytesPerEnrollment <= 16 / 0.3,
+                () -> String.format("%d enrollments use %d MiB (%.1f bytes each)",
+                        enrollments, set.memoryBytes() >> 20, bytesPerEnrollment));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.model.Enrollment;
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.MembershipIndex;
+import com.example.enrollmentservice.service.OutboxRelay;
+import com.example.enrollmentservice.service.OutboxTail;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Changes committed by other nodes reach the index through the published events or the periodic rebuild
+ */
+@SpringBootTest(properties = {
+        "enrollment.outbox.relay.enabled=true",
+        "enrollment.outbox.relay.interval=PT1H",
+        "enrollment.outbox.tail.interval=PT1H"
+})
+@ActiveProfiles("test")
+class MembershipIndexTest {
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentEventRepository eventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxTail outboxTail;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testRemoteChanges_shouldReachIndexThroughPublishedEvents() {
+        long userId = 66_001L;
+        long courseId = 9_601L;
+        Enrollment enrollment = transactionTemplate.execute(tx -> {
+            Enrollment saved = enrollmentRepository.save(enrollment(userId, courseId));
+            eventRepository.save(event(EnrollmentEventType.ENROLLED, saved));
+            return saved;
+        });
+        assertFalse(membershipIndex.contains(userId, courseId));
+
+        outboxRelay.relay();
+        outboxTail.poll();
+        assertTrue(membershipIndex.contains(userId, courseId));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            enrollmentRepository.deleteById(enrollment.getId());
+            eventRepository.save(event(EnrollmentEventType.UNENROLLED, enrollment));
+        });
+        outboxRelay.relay();
+        outboxTail.poll();
+        assertFalse(membershipIndex.contains(userId, courseId));
+    }
+
+    @Test
+    void testRebuild_shouldPickUpRowsWrittenWithoutEvents() {
+        long userId = 66_002L;
+        long courseId = 9_602L;
+        enrollmentRepository.save(enrollment(userId, courseId));
+        assertFalse(membershipIndex.contains(userId, courseId));
+
+        membershipIndex.warmUp();
+
+        assertTrue(membershipIndex.isReady());
+        assertTrue(membershipIndex.contains(userId, courseId));
+    }
+
+    private static Enrollment enrollment(long userId, long courseId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setUserId(userId);
+        enrollment.setCourseId(courseId);
+        enrollment.setEnrolledAt(LocalDateTime.now());
+        enrollment.setStatus(EnrollmentStatus.ENROLLED);
+        return enrollment;
+    }
+
+    private static EnrollmentEvent event(EnrollmentEventType type, Enrollment enrollment) {
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.setType(type);
+        event.setEnrollmentId(enrollment.getId());
+        event.setUserId(enrollment.getUserId());
+        event.setCourseId(enrollment.getCourseId());
+        event.setStatus(enrollment.getStatus());
+        event.setOccurredAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.enrollmentservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrapeExposesStageHistogramsAndPoolGauges() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "enrollment_stage_seconds_bucket{application=\"enrollmentservice\",operation=\"enroll\",stage=\"write\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                // ✅ User service client: breaker state, free bulkhead permits and connection pool
+                .andExpect(content().string(containsString("resilience4j_circuitbreaker_state{application=\"enrollmentservice\",name=\"userService\",state=\"closed\"")))
+                .andExpect(content().string(containsString("resilience4j_bulkhead_available_concurrent_calls")))
+                .andExpect(content().string(containsString("httpcomponents_httpclient_pool_total_max")))
+                .andExpect(content().string(containsString("cache_gets_total{application=\"enrollmentservice\",cache=\"enrollmentUserReads\",result=\"hit\"")))
+                // ✅ No per-user or per-course tags, so series stay bounded
+                .andExpect(content().string(not(containsString("userId=\""))))
+                .andExpect(content().string(not(containsString("courseId=\""))));
+    }
+
+    @Test
+    void invalidTokenIsCountedAsAuthFailure() throws Exception {
+        mockMvc.perform(get("/api/enrollments/check").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(content().string(containsString("enrollment_auth_failures_total{application=\"enrollmentservice\",reason=\"invalid\"")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.config.ReplicaLagMonitor;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ Two embedded databases: read-only work is served by the replica until it lags, writes always hit the primary
+ */
+@SpringBootTest(properties = {
+        "enrollment.datasource.replica.url=jdbc:h2:mem:enrollments-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "enrollment.datasource.replica.lag-query=SELECT seconds FROM replica_lag",
+        "enrollment.datasource.replica.max-lag=PT5S",
+        "enrollment.datasource.replica.lag-check-interval=PT1H",
+        "enrollment.membership-index.enabled=false",
+        "enrollment.counters.enabled=false",
+        "enrollment.read-cache.enabled=false"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    private static final long USER_ID = 80_001L;
+    private static final long PRIMARY_COURSE = 801L;
+    private static final long REPLICA_COURSE = 802L;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void seed() {
+        // ✅ Stand-in for replication: same schema, deliberately different rows (written around the read-only pool)
+        DriverManagerDataSource replicaWriter = new DriverManagerDataSource(replicaDataSource.getJdbcUrl(), "sa", "");
+        Flyway.configure().dataSource(replicaWriter).locations("classpath:db/migration").load().migrate();
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaWriter);
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+
+        for (JdbcTemplate db : new JdbcTemplate[]{primary, replica}) {
+            db.update("DELETE FROM enrollments WHERE user_id = ?", USER_ID);
+        }
+        insert(primary, 800_001L, PRIMARY_COURSE);
+        insert(replica, 800_002L, REPLICA_COURSE);
+        lagMonitor.check();
+    }
+
+    @Test
+    void readOnlyWorkIsServedByTheReplica() {
+        assertTrue(lagMonitor.isUsable());
+        assertTrue(enrollmentService.isUserEnrolled(USER_ID, REPLICA_COURSE));
+        assertFalse(enrollmentService.isUserEnrolled(USER_ID, PRIMARY_COURSE));
+        assertEquals(REPLICA_COURSE, enrollmentService.getUserEnrollments(USER_ID, PageRequest.ofSize(10))
+                .getContent().get(0).getCourseId());
+        assertEquals(1, enrollmentService.countUserEnrollments(USER_ID, null));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 30");
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isUsable());
+        assertTrue(enrollmentService.isUserEnrolled(USER_ID, PRIMARY_COURSE));
+        assertFalse(enrollmentService.isUserEnrolled(USER_ID, REPLICA_COURSE));
+    }
+
+    @Test
+    void writesAlwaysGoToThePrimary() {
+        enrollmentService.enrollUser(new EnrollmentRequest(803L), requestFor(USER_ID));
+
+        assertEquals(1, primary.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE user_id = ? AND course_id = 803", Integer.class, USER_ID));
+        assertEquals(0, replica.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE user_id = ? AND course_id = 803", Integer.class, USER_ID));
+    }
+
+    private static void insert(JdbcTemplate db, long id, long courseId) {
+        db.update("INSERT INTO enrollments (id, user_id, course_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)",
+                id, USER_ID, courseId, Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 9, 0)), "ENROLLED");
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.SeatAllocator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ✅ Many students racing for the last seats of one course: exactly the limit gets in, everyone else gets 409
+ */
+@SpringBootTest(properties = "enrollment.capacity.full-hint=PT0S")
+@ActiveProfiles("test")
+class SeatAllocatorConcurrencyTest {
+
+    private static final long COURSE_ID = 9_001L;
+    private static final int SEAT_LIMIT = 10;
+    private static final int STUDENTS = 64;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private SeatAllocator seatAllocator;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Test
+    void concurrentEnrollmentsNeverExceedTheSeatLimit() throws Exception {
+        seatAllocator.setCapacity(COURSE_ID, SEAT_LIMIT);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            long userId = 50_000L + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    enrollmentService.enrollUser(new EnrollmentRequest(COURSE_ID), requestFor(userId));
+                    enrolled.incrementAndGet();
+                } catch (ResponseStatusException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(SEAT_LIMIT, enrolled.get());
+        assertEquals(STUDENTS - SEAT_LIMIT, rejected.get());
+        assertEquals(SEAT_LIMIT, enrollmentRepository.countByCourseIdAndStatus(COURSE_ID, EnrollmentStatus.ENROLLED));
+        assertEquals(SEAT_LIMIT, seatAllocator.getCapacity(COURSE_ID).seatsTaken());
+    }
+
+    @Test
+    void concurrentFirstLimitsForACourseAllSucceedAndCountItsRoster() throws Exception {
+        long courseId = 9_002L;
+        for (long userId = 50_100L; userId < 50_105L; userId++) {
+            enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(userId));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return seatAllocator.setCapacity(courseId, 20);
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(20, seatAllocator.getCapacity(courseId).seatLimit());
+        assertEquals(5, seatAllocator.getCapacity(courseId).seatsTaken());
+    }
+
+    @Test
+    void limitSetWhileEnrollmentsAreInFlightCountsEverySeat() throws Exception {
+        // ✅ Several rounds: each sets a course's first limit while its first enrollments are still committing
+        for (int round = 0; round < 5; round++) {
+            long courseId = 9_010L + round;
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                long userId = 50_200L + round * 100L + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(userId));
+                    } catch (ResponseStatusException e) {
+                        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    }
+                    return null;
+                }));
+                if (i == 16) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        return seatAllocator.setCapacity(courseId, 8);
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            long enrolled = enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ENROLLED);
+            int seatsTaken = seatAllocator.getCapacity(courseId).seatsTaken();
+            // ✅ No enrollment escaped the count, so the limit holds from here on
+            assertEquals(enrolled, seatsTaken, "round " + round);
+            if (seatsTaken >= 8) {
+                long latecomer = 50_299L + round * 100L;
+                ResponseStatusException full = assertThrows(ResponseStatusException.class, () ->
+                        enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(latecomer)));
+                assertEquals(HttpStatus.CONFLICT, full.getStatusCode());
+            }
+        }
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.dto.EnrollmentRequest;
+import com.example.enrollmentservice.dto.StatusTransitionJobResponse;
+import com.example.enrollmentservice.dto.StatusTransitionRequest;
+import com.example.enrollmentservice.model.EnrollmentEvent;
+import com.example.enrollmentservice.model.EnrollmentEventType;
+import com.example.enrollmentservice.model.EnrollmentStatus;
+import com.example.enrollmentservice.model.StatusTransitionJob;
+import com.example.enrollmentservice.repository.EnrollmentEventRepository;
+import com.example.enrollmentservice.repository.EnrollmentRepository;
+import com.example.enrollmentservice.repository.StatusTransitionJobRepository;
+import com.example.enrollmentservice.service.EnrollmentCounters;
+import com.example.enrollmentservice.service.EnrollmentService;
+import com.example.enrollmentservice.service.SeatAllocator;
+import com.example.enrollmentservice.service.StatusTransitionService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ✅ A bulk transition changes the whole roster chunk by chunk, with seats, counters and events kept in step
+ */
+@SpringBootTest(properties = {
+        "enrollment.status-transition.chunk-size=7",
+        "enrollment.status-transition.pause=PT0S"
+})
+@ActiveProfiles("test")
+class StatusTransitionTest {
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentEventRepository eventRepository;
+
+    @Autowired
+    private EnrollmentCounters enrollmentCounters;
+
+    @Autowired
+    private SeatAllocator seatAllocator;
+
+    @Autowired
+    private StatusTransitionJobRepository jobRepository;
+
+    @Test
+    void completesWholeRosterAcrossChunks() throws InterruptedException {
+        long courseId = 9_301L;
+        int roster = 23;
+        seatAllocator.setCapacity(courseId, 50);
+        for (long userId = 63_001L; userId < 63_001L + roster; userId++) {
+            enrollmentService.enrollUser(new EnrollmentRequest(courseId), requestFor(userId));
+        }
+        assertEquals(roster, seatAllocator.getCapacity(courseId).seatsTaken());
+
+        StatusTransitionJobResponse started = statusTransitionService.start(courseId,
+                new StatusTransitionRequest(null, EnrollmentStatus.COMPLETED));
+        assertEquals(roster, started.total());
+
+        StatusTransitionJobResponse job = awaitDone(started.jobId());
+        assertEquals(StatusTransitionJob.State.COMPLETED, job.state());
+        assertEquals(roster, job.processed());
+        assertEquals(0, enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ENROLLED));
+        assertEquals(roster, enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.COMPLETED));
+        assertEquals(0, seatAllocator.getCapacity(courseId).seatsTaken());
+        assertEquals(roster, enrollmentCounters.courseCount(courseId, EnrollmentStatus.COMPLETED));
+        assertEquals(0, enrollmentCounters.courseCount(courseId, EnrollmentStatus.ENROLLED));
+        assertEquals(roster, eventRepository.findAll().stream()
+                .filter(e -> e.getCourseId() == courseId && e.getType() == EnrollmentEventType.STATUS_CHANGED)
+                .filter(e -> e.getStatus() == EnrollmentStatus.COMPLETED && e.getPreviousStatus() == EnrollmentStatus.ENROLLED)
+                .map(EnrollmentEvent::getEnrollmentId)
+                .distinct()
+                .count());
+    }
+
+    @Test
+    void rejectsTransitionsOutOfFinalStatuses() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> statusTransitionService.start(9_302L,
+                new StatusTransitionRequest(EnrollmentStatus.COMPLETED, EnrollmentStatus.ENROLLED)));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+
+        e = assertThrows(ResponseStatusException.class, () -> statusTransitionService.start(9_302L,
+                new StatusTransitionRequest(null, EnrollmentStatus.ENROLLED)));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void takesOverRunningJobsOnlyOnceTheirLeaseExpired() throws InterruptedException {
+        long abandonedCourse = 9_303L;
+        long leasedCourse = 9_304L;
+        seatAllocator.setCapacity(abandonedCourse, 10);
+        seatAllocator.setCapacity(leasedCourse, 10);
+        for (long userId = 63_201L; userId < 63_204L; userId++) {
+            enrollmentService.enrollUser(new EnrollmentRequest(abandonedCourse), requestFor(userId));
+            enrollmentService.enrollUser(new EnrollmentRequest(leasedCourse), requestFor(userId));
+        }
+        StatusTransitionJob abandoned = jobRepository.save(runningJob(abandonedCourse, LocalDateTime.now().minusHours(1)));
+        StatusTransitionJob leased = jobRepository.save(runningJob(leasedCourse, LocalDateTime.now()));
+
+        statusTransitionService.resumeInterrupted();
+
+        StatusTransitionJobResponse done = awaitDone(abandoned.getId());
+        assertEquals(StatusTransitionJob.State.COMPLETED, done.state());
+        assertEquals(3, done.processed());
+        assertNotEquals("crashed-node", jobRepository.findById(abandoned.getId()).orElseThrow().getOwner());
+
+        StatusTransitionJob untouched = jobRepository.findById(leased.getId()).orElseThrow();
+        assertEquals(StatusTransitionJob.State.RUNNING, untouched.getState());
+        assertEquals("crashed-node", untouched.getOwner());
+        assertEquals(0, untouched.getProcessed());
+        assertEquals(3, enrollmentRepository.countByCourseIdAndStatus(leasedCourse, EnrollmentStatus.ENROLLED));
+
+        untouched.setState(StatusTransitionJob.State.FAILED);
+        jobRepository.save(untouched);
+    }
+
+    @Test
+    void staleJobWritesAreRejected() {
+        StatusTransitionJob job = jobRepository.save(runningJob(9_305L, LocalDateTime.now()));
+        StatusTransitionJob stale = jobRepository.findById(job.getId()).orElseThrow();
+        job.setState(StatusTransitionJob.State.FAILED);
+        jobRepository.save(job);
+
+        stale.setProcessed(1);
+        assertThrows(OptimisticLockingFailureException.class, () -> jobRepository.save(stale));
+    }
+
+    private static StatusTransitionJob runningJob(long courseId, LocalDateTime heartbeat) {
+        StatusTransitionJob job = new StatusTransitionJob();
+        job.setCourseId(courseId);
+        job.setFromStatus(EnrollmentStatus.ENROLLED);
+        job.setToStatus(EnrollmentStatus.COMPLETED);
+        job.setState(StatusTransitionJob.State.RUNNING);
+        job.setTotal(3);
+        job.setOwner("crashed-node");
+        job.setCreatedAt(heartbeat);
+        job.setUpdatedAt(heartbeat);
+        return job;
+    }
+
+    private StatusTransitionJobResponse awaitDone(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        StatusTransitionJobResponse job = statusTransitionService.getJob(jobId);
+        while (job.state() == StatusTransitionJob.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            job = statusTransitionService.getJob(jobId);
+        }
+        return job;
+    }
+
+    private static MockHttpServletRequest requestFor(long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/enrollments");
+        request.addHeader("Authorization", "Bearer test");
+        Claims claims = Jwts.claims().setSubject("student" + userId);
+        claims.put("userId", userId);
+        request.setAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE, claims);
+        return request;
+    }
+}
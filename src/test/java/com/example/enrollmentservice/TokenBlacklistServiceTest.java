@@ -0,0 +1,76 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.service.TokenBlacklistService;
+import com.example.enrollmentservice.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBlacklistServiceTest {
+
+    private static final String SECRET = "js+rYouZsFFcNODquH8ShC6vHbytsJUWMLt+WgXjQMc=";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET);
+
+    private String token(long expiresInMillis) {
+        return Jwts.builder()
+                .setSubject("student@example.com")
+                .claim("roles", List.of("STUDENT"))
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    private TokenBlacklistService service(boolean bloomEnabled, String snapshotFile) {
+        return new TokenBlacklistService(jwtUtil, bloomEnabled, 1000, 0.01, snapshotFile);
+    }
+
+    @Test
+    void testRevokeToken_shouldBeRevokedUntilExpiry() {
+        TokenBlacklistService service = service(true, "");
+        String revoked = token(TimeUnit.HOURS.toMillis(1));
+        String other = token(TimeUnit.HOURS.toMillis(2));
+
+        service.revokeToken(revoked);
+
+        assertTrue(service.isTokenRevoked(revoked));
+        assertFalse(service.isTokenRevoked(other));
+    }
+
+    @Test
+    void testPurgeExpired_shouldDropExpiredRevocations() {
+        TokenBlacklistService service = service(true, "");
+        String token = token(TimeUnit.HOURS.toMillis(1));
+        service.revokeToken(token, Instant.now().minusSeconds(1));
+        service.revokeToken(token(TimeUnit.HOURS.toMillis(2)));
+
+        assertFalse(service.isTokenRevoked(token));
+        service.purgeExpired();
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    void testSnapshot_shouldRestoreRevocations(@TempDir Path dir) {
+        String file = dir.resolve("revocations.bin").toString();
+        String token = token(TimeUnit.HOURS.toMillis(1));
+
+        TokenBlacklistService first = service(true, file);
+        first.revokeToken(token);
+        first.purgeExpired();
+
+        TokenBlacklistService restored = service(true, file);
+        assertFalse(restored.isTokenRevoked(token));
+        ReflectionTestUtils.invokeMethod(restored, "loadSnapshot");
+        assertTrue(restored.isTokenRevoked(token));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.JwtAuthFilter;
+import com.example.enrollmentservice.config.UserServiceClientConfig;
+import com.example.enrollmentservice.service.EnrollmentMetrics;
+import com.example.enrollmentservice.service.UserIdResolver;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.*;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserIdResolverTest {
+
+    private static final String URL = "http://userservice/user/email";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private HttpServletRequest httpRequest;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // ✅ The production breaker (what counts as a failure), tripping after two calls
+        circuitBreaker = new UserServiceClientConfig().userServiceCircuitBreaker(meterRegistry,
+                50, Duration.ofSeconds(1), 2, 2, Duration.ofSeconds(10), 1);
+        bulkhead = Bulkhead.ofDefaults("userService");
+        when(httpRequest.getHeader("Authorization")).thenReturn("Bearer token");
+    }
+
+    private UserIdResolver resolver(String strategy) {
+        return new UserIdResolver(restTemplate, circuitBreaker, bulkhead, meterRegistry, new EnrollmentMetrics(meterRegistry), strategy, "userId", URL, 100, Duration.ofMinutes(1));
+    }
+
+    private void givenClaims(Claims claims) {
+        when(httpRequest.getAttribute(JwtAuthFilter.CLAIMS_ATTRIBUTE)).thenReturn(claims);
+    }
+
+    private void givenUserService(Long userId) {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class)))
+                .thenReturn(new ResponseEntity<>(userId, HttpStatus.OK));
+    }
+
+    @Test
+    void testResolve_claimPresent_shouldNotCallUserService() {
+        Claims claims = Jwts.claims().setSubject("alice@example.com");
+        claims.put("userId", 42);
+        givenClaims(claims);
+
+        assertEquals(42L, resolver("claims").resolve(httpRequest));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testResolve_claimMissing_shouldCacheRemoteLookupBySubject() {
+        givenClaims(Jwts.claims().setSubject("alice@example.com"));
+        givenUserService(7L);
+
+        UserIdResolver resolver = resolver("claims");
+        assertEquals(7L, resolver.resolve(httpRequest));
+        assertEquals(7L, resolver.resolve(httpRequest));
+
+        verify(restTemplate, times(1)).exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userIdCache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testResolve_remoteStrategy_shouldIgnoreClaim() {
+        Claims claims = Jwts.claims().setSubject("alice@example.com");
+        claims.put("userId", 42);
+        givenClaims(claims);
+        givenUserService(7L);
+
+        assertEquals(7L, resolver("remote").resolve(httpRequest));
+    }
+
+    @Test
+    void testResolve_missingToken_shouldThrow() {
+        when(httpRequest.getHeader("Authorization")).thenReturn(null);
+        assertThrows(RuntimeException.class, () -> resolver("claims").resolve(httpRequest));
+    }
+
+    @Test
+    void testResolve_userServiceDown_shouldOpenCircuitAndFailFast() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        UserIdResolver resolver = resolver("remote");
+        for (int i = 0; i < 3; i++) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> resolver.resolve(httpRequest));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(restTemplate, times(2)).exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class));
+        assertEquals(3.0, meterRegistry.get("enrollment.failures").tag("operation", "user_service").tag("status", "503").counter().count());
+    }
+
+    @Test
+    void testResolve_bulkheadFull_shouldRejectWithoutCalling() {
+        bulkhead = Bulkhead.of("userService", BulkheadConfig.custom().maxConcurrentCalls(0).maxWaitDuration(Duration.ZERO).build());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> resolver("remote").resolve(httpRequest));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        verifyNoInteractions(restTemplate);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testResolve_userServiceRejectsToken_shouldBeUnauthorizedAndKeepCircuitClosed() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(Long.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> resolver("remote").resolve(httpRequest));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.enrollmentservice;
+
+import com.example.enrollmentservice.config.VirtualThreadsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    void offByDefault() {
+        runner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadsConfig.class));
+    }
+
+    @Test
+    void asyncWorkRunsOnVirtualThreadsWhenEnabled() {
+        runner.withPropertyValues("enrollment.virtual-threads.enabled=true").run(context -> {
+            if (Runtime.version().feature() < 21) {
+                // ✅ Fails fast instead of silently staying on platform threads
+                assertThat(context).hasFailed();
+                assertThat(context.getStartupFailure()).rootCause().hasMessageContaining("Java 21");
+                return;
+            }
+            AsyncTaskExecutor executor = context.getBean(
+                    TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+            Future<Object> isVirtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            assertThat(isVirtual.get()).isEqualTo(true);
+        });
+    }
+}